@@ -0,0 +1,105 @@
+package cpg.mvc.crossword;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The changes of a crossword puzzle by a fill up: the keywords that were
+ * placed and the fields that were changed. The view only has to redraw the
+ * changed fields instead of the whole puzzle.<br>
+ * <br>
+ * A field is given by its row and column in the 2 dimensional crossword
+ * array. The fields are in the order of the rows.<br>
+ *
+ * @see CrosswordGenerator#fillUp(java.util.Map, int)
+ */
+public final class CrosswordChangeSet
+{
+	private final List<String> placedKeywords;
+
+	// The changed fields as row * width + column
+	private final int[] changedFields;
+	private final int width;
+
+
+	private CrosswordChangeSet(List<String> placedKeywords, int[] changedFields, int width)
+	{
+		this.placedKeywords = placedKeywords;
+		this.changedFields = changedFields;
+		this.width = width;
+	}
+
+
+	/**
+	 * Compare a crossword puzzle before and after a change.
+	 * Both arrays must have the same size.
+	 * @param before
+	 * @param after
+	 * @param placedKeywords
+	 * @return
+	 */
+	public static CrosswordChangeSet diff(String[][] before, String[][] after, Collection<String> placedKeywords)
+	{
+		int width = after.length > 0 ? after[0].length : 0;
+
+		int[] changed = new int[16];
+		int count = 0;
+
+		for (int i=0; i<after.length; i++)
+		{
+			for (int j=0; j<width; j++)
+			{
+				if (! before[i][j].equals(after[i][j]))
+				{
+					if (count == changed.length)
+					{
+						changed = Arrays.copyOf(changed, count * 2);
+					}
+					changed[count++] = i * width + j;
+				}
+			}
+		}
+
+		return new CrosswordChangeSet(
+				Collections.unmodifiableList(new ArrayList<>(placedKeywords)),
+				Arrays.copyOf(changed, count),
+				width);
+	}
+
+
+	/**
+	 * Get the keywords that were placed into the puzzle.
+	 * @return unmodifiable list
+	 */
+	public List<String> getPlacedKeywords()
+	{
+		return placedKeywords;
+	}
+
+	/**
+	 * Get the number of changed fields.
+	 * @return
+	 */
+	public int size()
+	{
+		return changedFields.length;
+	}
+
+	public boolean isEmpty()
+	{
+		return changedFields.length == 0;
+	}
+
+	public int getRow(int index)
+	{
+		return changedFields[index] / width;
+	}
+
+	public int getColumn(int index)
+	{
+		return changedFields[index] % width;
+	}
+}
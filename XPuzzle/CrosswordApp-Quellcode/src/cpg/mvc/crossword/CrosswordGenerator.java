@@ -3,9 +3,14 @@ package cpg.mvc.crossword;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import cpg.mvc.crossword.model.Crossword;
+import cpg.mvc.crossword.model.Orientation;
+import cpg.mvc.crossword.model.PlacedWord;
 import cpg.util.WordStatistics;
 
 /**
@@ -43,29 +48,46 @@ import cpg.util.WordStatistics;
  * A word description in a clue field has the following format:
  * Number of letters + direction + clue, e.g.: "3 vertical-down: capital of Italy".<br>
  * <br>
+ * The placed words are also kept as PlacedWords. The generated crossword is
+ * given to the renderers as a Crossword with these words and an index from
+ * the fields to the words, so they don't have to parse the clue fields.<br>
+ * <br>
  * For test purpose the crossword can also be printed to the console.<br>
  *
  * @see WordStatistics
  */
 public class CrosswordGenerator
 {
-	static String[][] crosswordPuzzle;
+	// The state of the generation belongs to the instance, so several
+	// crosswords can be generated independently, e.g. in background tasks.
+	private String[][] crosswordPuzzle;
+
+	private Map<String,String> crosswordDictionary = new HashMap<>();
+
+	private Map<String, Double> keywordsByFrequency = new HashMap<>();
+
+	private int HEIGHT;
+	private int WIDTH;
 
-	static Map<String,String> crosswordDictionary = new HashMap<>();
+	// The words in the order they were placed
+	private List<PlacedWord> placedWords = new ArrayList<>();
 
-	static Map<String, Double> keywordsByFrequency = new HashMap<>();
+	// The crossword of the placed words, it is made again after a change
+	private Crossword crossword;
 
-	static int HEIGHT;
-	static int WIDTH;
+	// The changes of the last fill up or null
+	private CrosswordChangeSet lastChanges;
 
 
 	/**
 	 * Constructor. Makes a crossword from a given word dictionary.
+	 * The generator works on its own copy of the dictionary, because the
+	 * placed words are removed from it.
 	 * @param wordDictionary
 	 */
 	public CrosswordGenerator(Map<String,String> wordDictionary)
 	{
-		crosswordDictionary = wordDictionary;
+		crosswordDictionary = new HashMap<>(wordDictionary);
 
 	}
 
@@ -78,6 +100,9 @@ public class CrosswordGenerator
 	 */
 	public void generateRandom(int width, int height)
 	{
+		placedWords = new ArrayList<>();
+		crossword = null;
+
 		HEIGHT = height;
 		WIDTH = width;
 
@@ -103,6 +128,9 @@ public class CrosswordGenerator
 	 */
 	public void generateFromDictionary()
 	{
+		placedWords = new ArrayList<>();
+		crossword = null;
+
 		calculateSize();
 
 		crosswordPuzzle = new String[HEIGHT][WIDTH];
@@ -139,13 +167,25 @@ public class CrosswordGenerator
 
 	/**
 	 * Fill up an existing crossword from a given dictionary with a given
-	 * number of words to fill with.
+	 * number of words to fill with. The given dictionary is not changed.<br>
+	 * <br>
+	 * The words are filled into a copy of the crossword array, so the former
+	 * array is not changed, e.g. while it is shown. The placed words and the
+	 * changed fields are reported by getLastChanges().
 	 *
 	 * @param dictionary
 	 * @param numberOfWords
 	 */
 	public void fillUp(Map<String,String> dictionary, int numberOfWords)
 	{
+		String[][] before = crosswordPuzzle;
+
+		crosswordPuzzle = new String[before.length][];
+		for (int i=0; i<before.length; i++)
+		{
+			crosswordPuzzle[i] = before[i].clone();
+		}
+
 		if (dictionary.size() > numberOfWords)
 		{
 			List<String> randomKeywords = new ArrayList<String>(dictionary.keySet());
@@ -167,16 +207,22 @@ public class CrosswordGenerator
 		}
 		else
 		{
-			crosswordDictionary = dictionary;
+			// Work on a copy, because the placed words are removed from it
+			crosswordDictionary = new HashMap<>(dictionary);
 
 			WordStatistics stats = new WordStatistics(crosswordDictionary);
 			keywordsByFrequency = stats.getWordMapByFrequency();
 		}
 
+		// The placed words are removed from the dictionary
+		Set<String> placedKeywords = new HashSet<>(crosswordDictionary.keySet());
+
 		fillVertical(3);
 		fillHorizontal(3);
 		fillDiagonal();
 
+		placedKeywords.removeAll(crosswordDictionary.keySet());
+		lastChanges = CrosswordChangeSet.diff(before, crosswordPuzzle, placedKeywords);
 	}
 
 	/**
@@ -380,7 +426,7 @@ public class CrosswordGenerator
 	 * Try to place words with good average letter frequency in
 	 * good strategic positions.
 	 */
-	private static void fillWithGoodFrequency()
+	private void fillWithGoodFrequency()
 	{
 		// Go through every 3rd column and fill it with words that have
 		// good letter frequencies and have 3 or more letters.
@@ -410,7 +456,7 @@ public class CrosswordGenerator
 	 * with words that fit the best, i.e. have the most crossings
 	 * with other words.
 	 */
-	private static void fillDiagonal()
+	private void fillDiagonal()
 	{
 		// Loop diagonally through the two dimensional array
 		int numberOfDiags = WIDTH+HEIGHT-1;
@@ -437,7 +483,7 @@ public class CrosswordGenerator
 	 *
 	 * @param steps
 	 */
-	private static void fillVertical(int steps)
+	private void fillVertical(int steps)
 	{
 		for (int j=2; j<WIDTH-1; j+=steps)
 		{
@@ -454,7 +500,7 @@ public class CrosswordGenerator
 	 *
 	 * @param steps
 	 */
-	private static void fillHorizontal(int steps)
+	private void fillHorizontal(int steps)
 	{
 		for (int i=2; i<HEIGHT-1; i+=steps)
 		{
@@ -469,7 +515,7 @@ public class CrosswordGenerator
 	/**
 	 * Initialize the crossword with empty fields
 	 */
-	private static void makeEmptyCrossword()
+	private void makeEmptyCrossword()
 	{
 		for (int i=0; i<HEIGHT; i++)
 		{
@@ -531,7 +577,7 @@ public class CrosswordGenerator
 	 * @param row
 	 * @param col
 	 */
-	private static void setBestFit(int row, int col)
+	private void setBestFit(int row, int col)
 	{
 		if (isOccupiedField(row,col))
 		{
@@ -682,7 +728,7 @@ public class CrosswordGenerator
 	}
 
 
-	private static void setBestFitVertical(int row, int col)
+	private void setBestFitVertical(int row, int col)
 	{
 		if (isOccupiedField(row,col))
 		{
@@ -722,7 +768,7 @@ public class CrosswordGenerator
 	}
 
 
-	private static void setBestFitHorizontal(int row, int col)
+	private void setBestFitHorizontal(int row, int col)
 	{
 		if (isOccupiedField(row,col))
 		{
@@ -761,7 +807,7 @@ public class CrosswordGenerator
 		}
 	}
 
-	private static void setBestFrequency(int row, int col, int minLength, String orientation)
+	private void setBestFrequency(int row, int col, int minLength, String orientation)
 	{
 		if (isOccupiedField(row,col))
 		{
@@ -809,7 +855,7 @@ public class CrosswordGenerator
 	}
 
 
-	private static boolean fitHorizontalRight(String keyword, int row, int col)
+	private boolean fitHorizontalRight(String keyword, int row, int col)
 	{
 		int len = keyword.length();
 
@@ -859,7 +905,7 @@ public class CrosswordGenerator
 		return true;
 	}
 
-	private static boolean fitVerticalDown(String keyword, int row, int col)
+	private boolean fitVerticalDown(String keyword, int row, int col)
 	{
 
 		int len = keyword.length();
@@ -911,7 +957,7 @@ public class CrosswordGenerator
 		return true;
 	}
 
-	private static boolean fitLeftDown(String keyword, int row, int col)
+	private boolean fitLeftDown(String keyword, int row, int col)
 	{
 		int len = keyword.length();
 
@@ -971,7 +1017,7 @@ public class CrosswordGenerator
 		return true;
 	}
 
-	private static boolean fitRightDown(String keyword, int row, int col)
+	private boolean fitRightDown(String keyword, int row, int col)
 	{
 		int len = keyword.length();
 
@@ -1038,7 +1084,7 @@ public class CrosswordGenerator
 		return true;
 	}
 
-	private static boolean fitTopRight(String keyword, int row, int col)
+	private boolean fitTopRight(String keyword, int row, int col)
 	{
 		int len = keyword.length();
 
@@ -1097,7 +1143,7 @@ public class CrosswordGenerator
 		return true;
 	}
 
-	private static boolean fitBottomRight(String keyword, int row, int col)
+	private boolean fitBottomRight(String keyword, int row, int col)
 	{
 		int len = keyword.length();
 
@@ -1160,7 +1206,7 @@ public class CrosswordGenerator
 		return true;
 	}
 
-	private static int numberOfHorizontalRightCrosses(String keyword, int row, int col)
+	private int numberOfHorizontalRightCrosses(String keyword, int row, int col)
 	{
 		int result = 0;
 
@@ -1175,7 +1221,7 @@ public class CrosswordGenerator
 		return result;
 	}
 
-	private static int numberOfVerticalDownCrosses(String keyword, int row, int col)
+	private int numberOfVerticalDownCrosses(String keyword, int row, int col)
 	{
 		int result = 0;
 
@@ -1190,7 +1236,7 @@ public class CrosswordGenerator
 		return result;
 	}
 
-	private static int numberOfLeftDownCrosses(String keyword, int row, int col)
+	private int numberOfLeftDownCrosses(String keyword, int row, int col)
 	{
 		int result = 0;
 
@@ -1205,7 +1251,7 @@ public class CrosswordGenerator
 		return result;
 	}
 
-	private static int numberOfRightDownCrosses(String keyword, int row, int col)
+	private int numberOfRightDownCrosses(String keyword, int row, int col)
 	{
 		int result = 0;
 
@@ -1221,7 +1267,7 @@ public class CrosswordGenerator
 	}
 
 
-	private static int numberOfTopRightCrosses(String keyword, int row, int col)
+	private int numberOfTopRightCrosses(String keyword, int row, int col)
 	{
 		int result = 0;
 
@@ -1237,7 +1283,7 @@ public class CrosswordGenerator
 	}
 
 
-	private static int numberOfBottomRightCrosses(String keyword, int row, int col)
+	private int numberOfBottomRightCrosses(String keyword, int row, int col)
 	{
 		int result = 0;
 
@@ -1253,7 +1299,7 @@ public class CrosswordGenerator
 	}
 
 
-	private static void setKeyword(String keyword, String orientation, int row, int col)
+	private void setKeyword(String keyword, String orientation, int row, int col)
 	{
 		if (orientation.equals("horizontal-right"))
 		{
@@ -1280,12 +1326,16 @@ public class CrosswordGenerator
 	    	setKeywordBottomRight(keyword, row, col);
 		}
 
-		crosswordPuzzle[row][col] = Integer.toString(keyword.length()) + " " + orientation + ": " + crosswordDictionary.get(keyword);
+		String clue = crosswordDictionary.get(keyword);
+		crosswordPuzzle[row][col] = Integer.toString(keyword.length()) + " " + orientation + ": " + clue;
+
+		placedWords.add(new PlacedWord(keyword, clue, Orientation.fromLabel(orientation), row, col));
+		crossword = null;
     	crosswordDictionary.remove(keyword);
     	keywordsByFrequency.remove(keyword);
 	}
 
-	private static void setKeywordHorizontalRight(String keyword, int row, int col)
+	private void setKeywordHorizontalRight(String keyword, int row, int col)
 	{
 		int len = keyword.length();
 
@@ -1303,7 +1353,7 @@ public class CrosswordGenerator
 	}
 
 
-	private static void setKeywordVerticalDown(String keyword, int row, int col)
+	private void setKeywordVerticalDown(String keyword, int row, int col)
 	{
 		int len = keyword.length();
 
@@ -1322,7 +1372,7 @@ public class CrosswordGenerator
 	}
 
 
-	private static void setKeywordRightDown(String keyword, int row, int col)
+	private void setKeywordRightDown(String keyword, int row, int col)
 	{
 		int len = keyword.length();
 
@@ -1340,7 +1390,7 @@ public class CrosswordGenerator
 	}
 
 
-	private static void setKeywordLeftDown(String keyword, int row, int col)
+	private void setKeywordLeftDown(String keyword, int row, int col)
 	{
 		int len = keyword.length();
 
@@ -1358,7 +1408,7 @@ public class CrosswordGenerator
 	}
 
 
-	private static void setKeywordTopRight(String keyword, int row, int col)
+	private void setKeywordTopRight(String keyword, int row, int col)
 	{
 		int len = keyword.length();
 
@@ -1376,7 +1426,7 @@ public class CrosswordGenerator
 	}
 
 
-	private static void setKeywordBottomRight(String keyword, int row, int col)
+	private void setKeywordBottomRight(String keyword, int row, int col)
 	{
 		int len = keyword.length();
 
@@ -1394,7 +1444,7 @@ public class CrosswordGenerator
 	}
 
 
-	private static boolean isOccupiedField(int row, int col)
+	private boolean isOccupiedField(int row, int col)
 	{
 		// Make sure we are not out of bounds...
 		if (row<0 || col<0 || row >= HEIGHT || col >= WIDTH)
@@ -1438,6 +1488,7 @@ public class CrosswordGenerator
 		HEIGHT = newHEIGHT;
 		WIDTH = newWIDTH;
 		crosswordPuzzle = newCrosswordPuzzle;
+		crossword = null;
 	}
 
 	private int[] getTheTwoLongestWordLengths()
@@ -1462,14 +1513,15 @@ public class CrosswordGenerator
 	}
 
 	/**
-	 * Print the 2 dimensional string array to the console. A clue entry
-	 * is indicated by an index number that leads to a list of clues
-	 * underneath the crossword grid.
+	 * Print the crossword to the console. A clue entry is indicated by
+	 * an index number that leads to a list of clues underneath the
+	 * crossword grid.
 	 */
 	@SuppressWarnings("unused")
-	private static void printCrosswordToConsole()
+	private void printCrosswordToConsole()
 	{
-		List<String> clueList = new ArrayList<>();
+		Crossword crossword = getCrossword();
+		List<PlacedWord> clueList = new ArrayList<>();
 
 		String separator = "";
 		String line = "";
@@ -1480,7 +1532,7 @@ public class CrosswordGenerator
 			separator = "";
 			for (int j=0; j < WIDTH; j++)
 			{
-				if (crosswordPuzzle[i][j].length() > 2)
+				if (crossword.isClueField(i, j))
 				{
 					if (clueIterator > 9)
 					{
@@ -1490,13 +1542,13 @@ public class CrosswordGenerator
 					{
 						line = line + " | " + Integer.toString(clueIterator);
 					}
-					clueList.add(crosswordPuzzle[i][j]);
+					clueList.add(crossword.getClueWord(i, j));
 					clueIterator = clueIterator + 1;
 					separator = separator + "-----";
 				}
-				else if (crosswordPuzzle[i][j].length() == 2)
+				else if (crossword.isLetterField(i, j))
 				{
-					line = line + " | " + String.valueOf(crosswordPuzzle[i][j].charAt(0));
+					line = line + " | " + crossword.getLetter(i, j);
 					separator = separator + "-----";
 				}
 				else
@@ -1517,15 +1569,24 @@ public class CrosswordGenerator
 		System.out.println("--------\n");
 		int iterator = 1;
 
-		for (String clue : clueList)
+		for (PlacedWord word : clueList)
 		{
-			System.out.println(iterator + ": " + clue);
+			System.out.println(iterator + ": " + word);
 			iterator = iterator + 1;
 		}
 	}
 
 
 
+	/**
+	 * Get the changes of the last fill up.
+	 * @return the changes or null, if the crossword was not filled up
+	 */
+	public CrosswordChangeSet getLastChanges()
+	{
+		return lastChanges;
+	}
+
 	/**
 	 * The getter for the 2 dimensional crossword array.
 	 * @return
@@ -1534,4 +1595,17 @@ public class CrosswordGenerator
 	{
 		return crosswordPuzzle;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Get the crossword with the placed words, e.g. for the renderers.
+	 * @return
+	 */
+	public Crossword getCrossword()
+	{
+		if (crossword == null)
+		{
+			crossword = new Crossword(HEIGHT, WIDTH, placedWords);
+		}
+		return crossword;
+	}
+}
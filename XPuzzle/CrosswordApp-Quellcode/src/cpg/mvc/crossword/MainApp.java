@@ -2,26 +2,18 @@ package cpg.mvc.crossword;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.prefs.Preferences;
 
-import cpg.mvc.crossword.model.Word;
+import cpg.mvc.crossword.model.WordListSnapshot;
 import cpg.mvc.crossword.view.CrosswordPuzzleController;
 import cpg.mvc.crossword.view.RootLayoutController;
 import cpg.mvc.crossword.view.WordListController;
 import javafx.application.Application;
-import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.StringProperty;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
-import javafx.util.Pair;
 
 /**
  * This is the ENTRY POINT for the application.
@@ -139,9 +131,7 @@ public class MainApp extends Application
 	 */
 	public void generateFromSelected()
 	{
-		Map<String,String> wordDictionary = getSelectedWordsAsDictionary();
-
-		this.crosswordPuzzleController = new CrosswordPuzzleController(wordDictionary);
+		this.crosswordPuzzleController = new CrosswordPuzzleController(getWordListSnapshot());
 		this.crosswordPuzzleController.setMainApp(this);
 		this.crosswordPuzzleController.generateFromSelection();
 	}
@@ -155,147 +145,21 @@ public class MainApp extends Application
 	 */
 	public void generateRandom(int numOfRows, int numOfColumns)
 	{
-		Map<String,String> wordDictionary = getAllWordsAsDictionary();
-
-		this.crosswordPuzzleController = new CrosswordPuzzleController(wordDictionary);
+		this.crosswordPuzzleController = new CrosswordPuzzleController(getWordListSnapshot());
 		this.crosswordPuzzleController.setMainApp(this);
 		this.crosswordPuzzleController.generateRandom(numOfRows, numOfColumns);
 	}
 
 
 	/**
-	 * Returns all the words in the wordData of the wordListController that
-	 * are marked as checked (selected) as a dictionary.
-	 *
-	 * @return selected word data
-	 */
-	public Map<String,String> getSelectedWordsAsDictionary()
-	{
-		Map<String,String> wordDictionary = new HashMap<>();
-
-		for (Word element : this.wordListController.getWordList().getWordData())
-		{
-			if (element.getChecked())
-			{
-				int numberOfClues = element.getAll().size();
-				if (numberOfClues >= 1)
-				{
-					List<String> clueList = new ArrayList<>();
-
-					for (Pair<StringProperty, BooleanProperty> clue : element.getAll())
-					{
-						if (clue.getValue().get())
-						{
-							clueList.add(clue.getKey().get());
-						}
-					}
-
-					String clue;
-					if (! clueList.isEmpty())
-					{
-						int randomNum = ThreadLocalRandom.current().nextInt(0, clueList.size());
-						clue = clueList.get(randomNum);
-					}
-					else
-					{
-						int randomNum = ThreadLocalRandom.current().nextInt(0, numberOfClues);
-						clue = element.getAll().get(randomNum).getKey().get();
-					}
-					String keyword = element.getKeyword();
-					wordDictionary.put(keyword, clue);
-				}
-				else
-				{
-					continue;
-				}
-			}
-
-		}
-
-		return wordDictionary;
-	}
-
-	/**
-	 * Returns all the words in the wordData of the wordListController that
-	 * are not (!) marked as checked (selected) as a dictionary.
+	 * Returns an immutable snapshot of the wordList of the wordListController,
+	 * that can be used by a background task while the list is edited.
 	 *
-	 * @return unselected word data
+	 * @return snapshot of the word list
 	 */
-	public Map<String,String> getUnselectedWordsAsDictionary()
+	public WordListSnapshot getWordListSnapshot()
 	{
-		Map<String,String> wordDictionary = new HashMap<>();
-
-		for (Word element : this.wordListController.getWordList().getWordData())
-		{
-			if (! element.getChecked())
-			{
-				int numberOfClues = element.getAll().size();
-				if (numberOfClues >= 1)
-				{
-					List<String> clueList = new ArrayList<>();
-
-					for (Pair<StringProperty, BooleanProperty> clue : element.getAll())
-					{
-						if (clue.getValue().get())
-						{
-							clueList.add(clue.getKey().get());
-						}
-					}
-
-					String clue;
-					if (! clueList.isEmpty())
-					{
-						int randomNum = ThreadLocalRandom.current().nextInt(0, clueList.size());
-						clue = clueList.get(randomNum);
-					}
-					else
-					{
-						int randomNum = ThreadLocalRandom.current().nextInt(0, numberOfClues);
-						clue = element.getAll().get(randomNum).getKey().get();
-					}
-					String keyword = element.getKeyword();
-					wordDictionary.put(keyword, clue);
-				}
-				else
-				{
-					continue;
-				}
-			}
-
-		}
-
-		return wordDictionary;
-	}
-
-
-	/**
-	 * Returns all the words in the wordData of the wordListController
-	 * as a dictionary.
-	 *
-	 * @return selected word data
-	 */
-	public Map<String,String> getAllWordsAsDictionary()
-	{
-		Map<String,String> wordDictionary = new HashMap<>();
-
-		for (Word element : this.wordListController.getWordList().getWordData())
-		{
-			// Choose the clue randomly.
-			int numberOfClues = element.getAll().size();
-			if (numberOfClues >= 1)
-			{
-				int randomNum = ThreadLocalRandom.current().nextInt(0, numberOfClues);
-				String clue = element.getAll().get(randomNum).getKey().get();
-				String keyword = element.getKeyword();
-				wordDictionary.put(keyword, clue);
-			}
-			else
-			{
-				continue;
-			}
-		}
-
-		return wordDictionary;
+		return this.wordListController.getWordList().snapshot();
 	}
 
 
@@ -0,0 +1,137 @@
+package cpg.mvc.crossword.model;
+
+import java.util.Arrays;
+
+/**
+ * Stores every distinct clue text once and gives it an int id.<br>
+ * <br>
+ * Many keywords share the same clue text, and clues that are loaded from
+ * files are separate String objects even if they are equal. The WordEntries
+ * of a WordList only hold the ids of their clues, so equal clues are stored
+ * once and duplicate checks are int comparisons after one hash lookup.<br>
+ * <br>
+ * The ids are the positions in an array of texts. The lookup table is an
+ * open addressing hash table of ids, so there are no boxed keys or entry
+ * objects per clue. Clues are never removed; a WordList gets a new store
+ * when it is cleared.<br>
+ * <br>
+ * The methods are synchronized, so the clues can be read by a background
+ * task while the list is edited.<br>
+ *
+ * @see WordEntry
+ * @see WordList
+ */
+public class ClueStore
+{
+	private static final int INITIAL_CAPACITY = 8;
+
+	// The clue texts by id
+	private String[] texts = new String[INITIAL_CAPACITY];
+
+	private int size = 0;
+
+	// Hash table of (id + 1), 0 marks an empty slot. The length is a power of two.
+	private int[] table = new int[INITIAL_CAPACITY * 2];
+
+
+	/**
+	 * Get the id of a clue. If the store does not contain the clue yet,
+	 * it is added.
+	 * @param clue
+	 * @return id
+	 */
+	public synchronized int intern(String clue)
+	{
+		int slot = findSlot(clue);
+
+		if (table[slot] != 0)
+		{
+			return table[slot] - 1;
+		}
+
+		if (size == texts.length)
+		{
+			texts = Arrays.copyOf(texts, size * 2);
+		}
+		int id = size++;
+		texts[id] = clue;
+		table[slot] = id + 1;
+
+		// Keep the table at most half full
+		if (size * 2 > table.length)
+		{
+			rehash(table.length * 2);
+		}
+		return id;
+	}
+
+	/**
+	 * Get the id of a clue without adding it.
+	 * @param clue
+	 * @return id or -1, if the store does not contain the clue
+	 */
+	public synchronized int indexOf(String clue)
+	{
+		return table[findSlot(clue)] - 1;
+	}
+
+	/**
+	 * Get the text of a clue.
+	 * @param id
+	 * @return
+	 */
+	public synchronized String get(int id)
+	{
+		if (id < 0 || id >= size)
+		{
+			throw new IndexOutOfBoundsException("Clue id: " + id);
+		}
+		return texts[id];
+	}
+
+	/**
+	 * Get the number of distinct clues.
+	 * @return
+	 */
+	public synchronized int size()
+	{
+		return size;
+	}
+
+
+	private int findSlot(String clue)
+	{
+		int mask = table.length - 1;
+		int slot = mix(clue.hashCode()) & mask;
+
+		while (table[slot] != 0 && ! texts[table[slot] - 1].equals(clue))
+		{
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void rehash(int capacity)
+	{
+		int[] newTable = new int[capacity];
+		int mask = capacity - 1;
+
+		for (int id=0; id<size; id++)
+		{
+			int slot = mix(texts[id].hashCode()) & mask;
+			while (newTable[slot] != 0)
+			{
+				slot = (slot + 1) & mask;
+			}
+			newTable[slot] = id + 1;
+		}
+		table = newTable;
+	}
+
+	// Spread the bits of the hash code, because only the lower bits are used
+	private static int mix(int hash)
+	{
+		hash = hash * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+}
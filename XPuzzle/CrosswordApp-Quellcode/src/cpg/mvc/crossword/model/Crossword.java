@@ -0,0 +1,165 @@
+package cpg.mvc.crossword.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A crossword puzzle as the list of its placed words, with an index from
+ * every field to the words in it, so the renderers can read the fields
+ * without parsing the texts of the clue fields.<br>
+ * <br>
+ * A field is a clue field, a letter field or an empty field. A letter field
+ * belongs to at most one horizontal and one vertical word. The index holds
+ * the number of the word in the list for every field, for the clue fields
+ * and for the letter fields in both directions.<br>
+ * <br>
+ * The crossword is immutable.<br>
+ *
+ * @see PlacedWord
+ */
+public final class Crossword
+{
+	private final int rows;
+	private final int columns;
+
+	private final List<PlacedWord> words;
+
+	// The number of the word + 1 by field, 0 for none
+	private final int[] clueWords;
+	private final int[] horizontalWords;
+	private final int[] verticalWords;
+
+
+	/**
+	 * The constructor.
+	 * @param rows
+	 * @param columns
+	 * @param words that are placed inside the grid
+	 */
+	public Crossword(int rows, int columns, Collection<PlacedWord> words)
+	{
+		this.rows = rows;
+		this.columns = columns;
+		this.words = Collections.unmodifiableList(new ArrayList<>(words));
+
+		clueWords = new int[rows * columns];
+		horizontalWords = new int[rows * columns];
+		verticalWords = new int[rows * columns];
+
+		for (int k=0; k<this.words.size(); k++)
+		{
+			PlacedWord word = this.words.get(k);
+			clueWords[field(word.getRow(), word.getColumn())] = k + 1;
+
+			int[] letterWords = word.getOrientation().isVertical() ? verticalWords : horizontalWords;
+			for (int i=0; i<word.getLength(); i++)
+			{
+				letterWords[field(word.getLetterRow(i), word.getLetterColumn(i))] = k + 1;
+			}
+		}
+	}
+
+
+	public int getRows()
+	{
+		return rows;
+	}
+
+	public int getColumns()
+	{
+		return columns;
+	}
+
+	/**
+	 * Get the placed words in the order of their clue fields.
+	 * @return unmodifiable list
+	 */
+	public List<PlacedWord> getWords()
+	{
+		return words;
+	}
+
+	/**
+	 * Get the word of a clue field.
+	 * @param row
+	 * @param column
+	 * @return the word or null, if the field is no clue field
+	 */
+	public PlacedWord getClueWord(int row, int column)
+	{
+		return word(clueWords, row, column);
+	}
+
+	/**
+	 * Get the horizontal word of a letter field.
+	 * @param row
+	 * @param column
+	 * @return the word or null
+	 */
+	public PlacedWord getHorizontalWord(int row, int column)
+	{
+		return word(horizontalWords, row, column);
+	}
+
+	/**
+	 * Get the vertical word of a letter field.
+	 * @param row
+	 * @param column
+	 * @return the word or null
+	 */
+	public PlacedWord getVerticalWord(int row, int column)
+	{
+		return word(verticalWords, row, column);
+	}
+
+	public boolean isClueField(int row, int column)
+	{
+		return clueWords[field(row, column)] != 0;
+	}
+
+	public boolean isLetterField(int row, int column)
+	{
+		int field = field(row, column);
+		return horizontalWords[field] != 0 || verticalWords[field] != 0;
+	}
+
+	public boolean isEmptyField(int row, int column)
+	{
+		return ! isClueField(row, column) && ! isLetterField(row, column);
+	}
+
+	/**
+	 * Get the letter of a letter field.
+	 * @param row
+	 * @param column
+	 * @return the letter or 0, if the field is no letter field
+	 */
+	public char getLetter(int row, int column)
+	{
+		PlacedWord word = getHorizontalWord(row, column);
+		if (word != null)
+		{
+			return word.getLetter(column - word.getLetterColumn(0));
+		}
+
+		word = getVerticalWord(row, column);
+		if (word != null)
+		{
+			return word.getLetter(row - word.getLetterRow(0));
+		}
+		return 0;
+	}
+
+	private PlacedWord word(int[] fieldWords, int row, int column)
+	{
+		int number = fieldWords[field(row, column)];
+		return number == 0 ? null : words.get(number - 1);
+	}
+
+	private int field(int row, int column)
+	{
+		return row * columns + column;
+	}
+}
@@ -0,0 +1,113 @@
+package cpg.mvc.crossword.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds the dictionary for the crossword generator from a snapshot of a
+ * word list, i.e. a map from keyword to one clue, in a single pass over
+ * the entries. The snapshot is immutable, so the dictionary can be built
+ * in a background task.<br>
+ * <br>
+ * For every keyword one clue is chosen randomly. For the selected and the
+ * unselected words, the clue is chosen from the checked clues, if there are
+ * any. The selection is read from the bitmaps of the WordEntries, so no
+ * properties are read and no temporary lists are built.<br>
+ *
+ * @see WordListSnapshot
+ * @see cpg.mvc.crossword.CrosswordGenerator
+ */
+public class DictionarySnapshotBuilder
+{
+	/**
+	 * The words that are taken into the dictionary.
+	 */
+	public enum Selection
+	{
+		SELECTED, UNSELECTED, ALL
+	}
+
+	// The random generator or null for the ThreadLocalRandom of the building thread
+	private final Random random;
+
+
+	/**
+	 * Default constructor.
+	 */
+	public DictionarySnapshotBuilder()
+	{
+		this(null);
+	}
+
+	/**
+	 * Constructor with the random generator that chooses the clues.
+	 * @param random
+	 */
+	public DictionarySnapshotBuilder(Random random)
+	{
+		this.random = random;
+	}
+
+
+	/**
+	 * Build the dictionary from a snapshot of a word list.
+	 * @param snapshot
+	 * @param selection of the words
+	 * @return map from keyword to clue
+	 */
+	public Map<String,String> build(WordListSnapshot snapshot, Selection selection)
+	{
+		Map<String,String> wordDictionary = new HashMap<>(snapshot.size() * 4 / 3 + 1);
+
+		Random random = this.random != null ? this.random : ThreadLocalRandom.current();
+
+		for (int i=0; i<snapshot.size(); i++)
+		{
+			WordEntry entry = snapshot.getEntry(i);
+
+			String clue = chooseClue(entry, selection, random);
+			if (clue != null)
+			{
+				wordDictionary.put(entry.getKeyword(), clue);
+			}
+		}
+
+		return wordDictionary;
+	}
+
+	/**
+	 * Choose the clue of an entry.
+	 * @param entry
+	 * @param selection
+	 * @param random
+	 * @return clue or null, if the entry is not in the selection or has no clues
+	 */
+	private static String chooseClue(WordEntry entry, Selection selection, Random random)
+	{
+		int numberOfClues = entry.getClueCount();
+		if (numberOfClues == 0)
+		{
+			return null;
+		}
+
+		if (selection == Selection.ALL)
+		{
+			return entry.getClue(random.nextInt(numberOfClues));
+		}
+
+		if (entry.isChecked() != (selection == Selection.SELECTED))
+		{
+			return null;
+		}
+
+		// Prefer the checked clues, if there are any
+		int numberOfCheckedClues = entry.getCheckedClueCount();
+		if (numberOfCheckedClues > 0)
+		{
+			return entry.getClue(entry.getCheckedClueIndex(random.nextInt(numberOfCheckedClues)));
+		}
+		return entry.getClue(random.nextInt(numberOfClues));
+	}
+}
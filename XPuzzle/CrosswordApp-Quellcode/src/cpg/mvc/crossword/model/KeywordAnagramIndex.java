@@ -0,0 +1,317 @@
+package cpg.mvc.crossword.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Anagram index over the keywords of a WordList, e.g. for theme puzzles.
+ * It finds the keywords that consist of the same letters as a given text
+ * and the keywords that can be built from a subset of its letters.<br>
+ * <br>
+ * The keywords are grouped by their signature, that are their letters
+ * in sorted order, e.g. "AEINRST" for "TRAINES". An anagram query is a
+ * single lookup of the signature.<br>
+ * <br>
+ * For the subset queries, the signatures are kept in a trie over their
+ * sorted letters, so the path to a signature follows its letter counts.
+ * A query only descends into the letters that are still available in its
+ * 26-count vector and skips the whole subtree of any other letter. Below
+ * a small depth the signatures are kept in buckets and checked one by one,
+ * so the trie needs only a few nodes.<br>
+ * <br>
+ * The index is updated for every keyword that is added or removed, so it is
+ * not thread safe. Letters other than A-Z are only found by anagram queries.<br>
+ *
+ * @see WordList#findAnagrams(String)
+ * @see WordList#findKeywordsFromLetters(String)
+ */
+public final class KeywordAnagramIndex
+{
+	private static final int ALPHABET_SIZE = 26;
+
+	// The trie has nodes for the first letters of the signatures only
+	private static final int TRIE_DEPTH = 4;
+
+	private final Map<String, List<String>> keywordsBySignature = new HashMap<>();
+
+	private final Node root = new Node();
+
+
+	/**
+	 * Add a keyword to the index.
+	 * @param keyword
+	 */
+	public void add(String keyword)
+	{
+		String signature = signature(keyword);
+		List<String> keywords = keywordsBySignature.get(signature);
+
+		if (keywords == null)
+		{
+			keywords = new ArrayList<>(1);
+			keywordsBySignature.put(signature, keywords);
+			root.add(signature, 0);
+		}
+		if (! keywords.contains(keyword))
+		{
+			keywords.add(keyword);
+		}
+	}
+
+	/**
+	 * Remove a keyword from the index.
+	 * @param keyword
+	 */
+	public void remove(String keyword)
+	{
+		String signature = signature(keyword);
+		List<String> keywords = keywordsBySignature.get(signature);
+
+		if (keywords != null && keywords.remove(keyword) && keywords.isEmpty())
+		{
+			keywordsBySignature.remove(signature);
+			root.remove(signature, 0);
+		}
+	}
+
+	/**
+	 * Remove all the keywords from the index.
+	 */
+	public void clear()
+	{
+		keywordsBySignature.clear();
+		root.clear();
+	}
+
+	/**
+	 * Find the keywords that consist of exactly the letters of a text,
+	 * in any order. The case is ignored.
+	 * @param letters
+	 * @return unmodifiable list of keywords
+	 */
+	public List<String> findAnagrams(String letters)
+	{
+		List<String> keywords = keywordsBySignature.get(signature(letters));
+
+		if (keywords == null)
+		{
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(new ArrayList<>(keywords));
+	}
+
+	/**
+	 * Find the keywords that can be built from the letters of a text,
+	 * i.e. every letter is used at most as often as it occurs in the text.
+	 * The case is ignored.
+	 * @param letters
+	 * @return list of keywords
+	 */
+	public List<String> findSubsets(String letters)
+	{
+		int[] available = new int[ALPHABET_SIZE];
+
+		String upperCaseLetters = letters.toUpperCase();
+		for (int i=0; i<upperCaseLetters.length(); i++)
+		{
+			int letter = upperCaseLetters.charAt(i) - 'A';
+			if (letter >= 0 && letter < ALPHABET_SIZE)
+			{
+				available[letter]++;
+			}
+		}
+
+		List<String> keywords = new ArrayList<>();
+		collectSubsets(root, 0, available, keywords);
+		return keywords;
+	}
+
+	/**
+	 * Get the number of keywords in the index.
+	 * @return
+	 */
+	public int size()
+	{
+		int size = 0;
+		for (List<String> keywords : keywordsBySignature.values())
+		{
+			size += keywords.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Get the signature of a keyword, that are its letters in upper case
+	 * and sorted order. Anagrams have the same signature.
+	 * @param keyword
+	 * @return
+	 */
+	public static String signature(String keyword)
+	{
+		char[] letters = keyword.toUpperCase().toCharArray();
+		Arrays.sort(letters);
+		return new String(letters);
+	}
+
+
+	private void collectSubsets(Node node, int depth, int[] available, List<String> result)
+	{
+		if (node.signatures != null)
+		{
+			for (String signature : node.signatures)
+			{
+				if (hasLetters(signature, depth, available))
+				{
+					result.addAll(keywordsBySignature.get(signature));
+				}
+			}
+		}
+
+		for (int i=0; i<node.letters.length; i++)
+		{
+			int letter = node.letters[i] - 'A';
+
+			// Skip the subtree of a letter that is not available any more
+			if (letter < 0 || letter >= ALPHABET_SIZE || available[letter] == 0)
+			{
+				continue;
+			}
+
+			available[letter]--;
+			collectSubsets(node.children[i], depth + 1, available, result);
+			available[letter]++;
+		}
+	}
+
+	/**
+	 * Check if the letters of a signature from a start index are available.
+	 * The counts are restored before returning.
+	 */
+	private static boolean hasLetters(String signature, int start, int[] available)
+	{
+		int end = start;
+		boolean found = true;
+
+		for (; end<signature.length(); end++)
+		{
+			int letter = signature.charAt(end) - 'A';
+			if (letter < 0 || letter >= ALPHABET_SIZE || available[letter] == 0)
+			{
+				found = false;
+				break;
+			}
+			available[letter]--;
+		}
+
+		for (int i=start; i<end; i++)
+		{
+			available[signature.charAt(i) - 'A']++;
+		}
+		return found;
+	}
+
+
+	/**
+	 * A node of the trie. Its children are sorted by letter.
+	 */
+	private static final class Node
+	{
+		private static final char[] NO_LETTERS = new char[0];
+		private static final Node[] NO_CHILDREN = new Node[0];
+
+		private char[] letters = NO_LETTERS;
+		private Node[] children = NO_CHILDREN;
+
+		// The signatures that end here or, at the last level, go on below or null
+		private List<String> signatures;
+
+		// The number of signatures in the subtree
+		private int size;
+
+
+		void add(String signature, int depth)
+		{
+			size++;
+
+			if (depth == signature.length() || depth == TRIE_DEPTH)
+			{
+				if (signatures == null)
+				{
+					signatures = new ArrayList<>(1);
+				}
+				signatures.add(signature);
+				return;
+			}
+
+			char letter = signature.charAt(depth);
+			int index = Arrays.binarySearch(letters, letter);
+
+			if (index < 0)
+			{
+				index = -(index + 1);
+
+				letters = insert(letters, index, letter);
+				Node[] newChildren = new Node[children.length + 1];
+				System.arraycopy(children, 0, newChildren, 0, index);
+				System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+				newChildren[index] = new Node();
+				children = newChildren;
+			}
+			children[index].add(signature, depth + 1);
+		}
+
+		void remove(String signature, int depth)
+		{
+			size--;
+
+			if (depth == signature.length() || depth == TRIE_DEPTH)
+			{
+				signatures.remove(signature);
+				if (signatures.isEmpty())
+				{
+					signatures = null;
+				}
+				return;
+			}
+
+			int index = Arrays.binarySearch(letters, signature.charAt(depth));
+			Node child = children[index];
+			child.remove(signature, depth + 1);
+
+			// Remove the child, if its subtree is empty
+			if (child.size == 0)
+			{
+				char[] newLetters = new char[letters.length - 1];
+				System.arraycopy(letters, 0, newLetters, 0, index);
+				System.arraycopy(letters, index + 1, newLetters, index, newLetters.length - index);
+				letters = newLetters;
+
+				Node[] newChildren = new Node[children.length - 1];
+				System.arraycopy(children, 0, newChildren, 0, index);
+				System.arraycopy(children, index + 1, newChildren, index, newChildren.length - index);
+				children = newChildren;
+			}
+		}
+
+		void clear()
+		{
+			letters = NO_LETTERS;
+			children = NO_CHILDREN;
+			signatures = null;
+			size = 0;
+		}
+
+		private static char[] insert(char[] array, int index, char value)
+		{
+			char[] newArray = new char[array.length + 1];
+			System.arraycopy(array, 0, newArray, 0, index);
+			System.arraycopy(array, index, newArray, index + 1, array.length - index);
+			newArray[index] = value;
+			return newArray;
+		}
+	}
+}
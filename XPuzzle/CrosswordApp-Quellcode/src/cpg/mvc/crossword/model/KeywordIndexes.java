@@ -0,0 +1,75 @@
+package cpg.mvc.crossword.model;
+
+/**
+ * The sorted keywords of a WordList with the indexes over them, to find
+ * keywords by a substring or a pattern.<br>
+ * <br>
+ * The indexes only depend on the keywords and their positions, not on the
+ * clues or the selection of the Words. So the WordList keeps them, until a
+ * keyword or the list itself is changed, and shares them with its snapshots.
+ * An index is built, when it is needed first.<br>
+ *
+ * @see WordList
+ * @see WordListSnapshot
+ */
+public final class KeywordIndexes
+{
+	private final String[] keywords;
+
+	// The indexes are built, when they are needed first
+	private volatile KeywordTrigramIndex trigramIndex;
+	private volatile KeywordPatternIndex patternIndex;
+
+
+	/**
+	 * Constructor.
+	 * @param keywords sorted, the array is not copied
+	 */
+	KeywordIndexes(String[] keywords)
+	{
+		this.keywords = keywords;
+	}
+
+
+	public int size()
+	{
+		return keywords.length;
+	}
+
+	public String getKeyword(int index)
+	{
+		return keywords[index];
+	}
+
+	/**
+	 * Get the trigram index over the keywords. It is built on the first
+	 * call, so this should be called from a background task.
+	 * @return
+	 */
+	public KeywordTrigramIndex getTrigramIndex()
+	{
+		KeywordTrigramIndex index = trigramIndex;
+		if (index == null)
+		{
+			index = new KeywordTrigramIndex(keywords);
+			trigramIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Get the length and position index over the keywords, to find keywords
+	 * by a pattern. It is built on the first call.
+	 * @return
+	 */
+	public KeywordPatternIndex getPatternIndex()
+	{
+		KeywordPatternIndex index = patternIndex;
+		if (index == null)
+		{
+			index = new KeywordPatternIndex(keywords);
+			patternIndex = index;
+		}
+		return index;
+	}
+}
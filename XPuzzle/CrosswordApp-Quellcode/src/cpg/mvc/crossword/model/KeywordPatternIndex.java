@@ -0,0 +1,188 @@
+package cpg.mvc.crossword.model;
+
+import java.util.Arrays;
+
+/**
+ * Length and position index over the keywords of a WordList, to find the
+ * keywords that match a pattern like "A??E?T", e.g. to fill a slot of
+ * the crossword by hand. A "?" stands for any letter, the other letters are
+ * fixed; the pattern has the length of the keywords to find.<br>
+ * <br>
+ * The keywords are grouped by length. For every group there is a bitmap for
+ * every position and letter, that has a bit for each keyword of the group
+ * with that letter at that position. A query ANDs the bitmaps of its fixed
+ * letters, so it only reads a few words per 64 keywords of one length.<br>
+ * <br>
+ * Bitmaps of letters that don't appear at a position are not created.<br>
+ *
+ * @see KeywordIndexes#getPatternIndex()
+ * @see WordList#findByPattern(String)
+ */
+public final class KeywordPatternIndex
+{
+	/**
+	 * The character that stands for any letter in a pattern.
+	 */
+	public static final char WILDCARD = '?';
+
+	private static final int ALPHABET_SIZE = 26;
+
+	private static final int[] NO_MATCHES = new int[0];
+
+	// The positions of the keywords of each length
+	private final int[][] keywordsByLength;
+
+	// The bitmaps of each length by (position * 26 + letter), or null
+	private final long[][][] letterBitmaps;
+
+
+	/**
+	 * Build the index for sorted keywords.
+	 * @param keywords
+	 */
+	public KeywordPatternIndex(String[] keywords)
+	{
+		int maxLength = 0;
+		for (int i=0; i<keywords.length; i++)
+		{
+			maxLength = Math.max(maxLength, keywords[i].length());
+		}
+
+		// Group the keywords by length
+		int[] counts = new int[maxLength + 1];
+		for (int i=0; i<keywords.length; i++)
+		{
+			counts[keywords[i].length()]++;
+		}
+
+		keywordsByLength = new int[maxLength + 1][];
+		for (int length=0; length<=maxLength; length++)
+		{
+			keywordsByLength[length] = new int[counts[length]];
+		}
+
+		Arrays.fill(counts, 0);
+		for (int i=0; i<keywords.length; i++)
+		{
+			int length = keywords[i].length();
+			keywordsByLength[length][counts[length]++] = i;
+		}
+
+		// Set the bits of the letters at every position
+		letterBitmaps = new long[maxLength + 1][][];
+		for (int length=1; length<=maxLength; length++)
+		{
+			int[] group = keywordsByLength[length];
+			if (group.length == 0)
+			{
+				continue;
+			}
+
+			long[][] bitmaps = new long[length * ALPHABET_SIZE][];
+			int bitmapLength = (group.length + 63) / 64;
+
+			for (int k=0; k<group.length; k++)
+			{
+				String keyword = keywords[group[k]];
+
+				for (int position=0; position<length; position++)
+				{
+					int letter = keyword.charAt(position) - 'A';
+					if (letter < 0 || letter >= ALPHABET_SIZE)
+					{
+						continue;
+					}
+
+					int slot = position * ALPHABET_SIZE + letter;
+					if (bitmaps[slot] == null)
+					{
+						bitmaps[slot] = new long[bitmapLength];
+					}
+					bitmaps[slot][k >>> 6] |= 1L << k;
+				}
+			}
+			letterBitmaps[length] = bitmaps;
+		}
+	}
+
+
+	/**
+	 * Check if a text is a pattern, i.e. contains a wildcard.
+	 * @param text
+	 * @return
+	 */
+	public static boolean isPattern(String text)
+	{
+		return text.indexOf(WILDCARD) >= 0;
+	}
+
+	/**
+	 * Find the keywords that match a pattern. The letters are compared
+	 * ignoring the case.
+	 * @param pattern e.g. "A??E?T"
+	 * @return the positions of the keywords, in ascending order
+	 */
+	public int[] find(String pattern)
+	{
+		int length = pattern.length();
+
+		if (length == 0 || length >= keywordsByLength.length || keywordsByLength[length].length == 0)
+		{
+			return NO_MATCHES;
+		}
+
+		int[] keywords = keywordsByLength[length];
+		long[][] bitmaps = letterBitmaps[length];
+
+		// Collect the bitmaps of the fixed letters
+		long[][] fixed = new long[length][];
+		int fixedCount = 0;
+
+		for (int position=0; position<length; position++)
+		{
+			char c = Character.toUpperCase(pattern.charAt(position));
+
+			if (c == WILDCARD)
+			{
+				continue;
+			}
+			if (c < 'A' || c > 'Z')
+			{
+				return NO_MATCHES;
+			}
+
+			long[] bitmap = bitmaps[position * ALPHABET_SIZE + (c - 'A')];
+			if (bitmap == null)
+			{
+				// No keyword has the letter at this position
+				return NO_MATCHES;
+			}
+			fixed[fixedCount++] = bitmap;
+		}
+
+		if (fixedCount == 0)
+		{
+			return keywords.clone();
+		}
+
+		int[] result = new int[keywords.length];
+		int count = 0;
+
+		for (int w=0; w<fixed[0].length; w++)
+		{
+			long bits = fixed[0][w];
+			for (int f=1; f<fixedCount && bits != 0; f++)
+			{
+				bits = bits & fixed[f][w];
+			}
+
+			while (bits != 0)
+			{
+				result[count++] = keywords[(w << 6) + Long.numberOfTrailingZeros(bits)];
+				bits = bits & (bits - 1);
+			}
+		}
+
+		return Arrays.copyOf(result, count);
+	}
+}
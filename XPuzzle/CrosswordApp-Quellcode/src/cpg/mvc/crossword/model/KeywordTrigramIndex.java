@@ -0,0 +1,222 @@
+package cpg.mvc.crossword.model;
+
+import java.util.Arrays;
+
+/**
+ * Trigram index over the keywords of a WordList, to find the keywords
+ * that contain a substring, e.g. for the filter of the word list.<br>
+ * <br>
+ * For every trigram of the letters A-Z the index holds the sorted positions
+ * of the keywords that contain it. A query of three or more letters only
+ * checks the keywords of its rarest trigram, instead of every keyword.
+ * Shorter queries and queries with other characters are answered by
+ * scanning the keywords.<br>
+ * <br>
+ * The postings of all trigrams are kept in one int array, so the index
+ * needs no objects per keyword or trigram.<br>
+ *
+ * @see KeywordIndexes#getTrigramIndex()
+ */
+public final class KeywordTrigramIndex
+{
+	private static final int ALPHABET_SIZE = 26;
+	private static final int TRIGRAM_COUNT = ALPHABET_SIZE * ALPHABET_SIZE * ALPHABET_SIZE;
+
+	private final String[] keywords;
+
+	// The postings of trigram t are postings[offsets[t]] to postings[offsets[t + 1] - 1]
+	private final int[] offsets = new int[TRIGRAM_COUNT + 1];
+	private final int[] postings;
+
+	// Keywords with characters other than A-Z, they are always checked
+	private final int[] otherKeywords;
+
+
+	/**
+	 * Build the index for sorted keywords.
+	 * @param keywords the array is not copied
+	 */
+	public KeywordTrigramIndex(String[] keywords)
+	{
+		this.keywords = keywords;
+
+		int[] lastKeyword = new int[TRIGRAM_COUNT];
+		int[] counts = new int[TRIGRAM_COUNT];
+		int otherCount = 0;
+
+		// First pass: count the postings of every trigram
+		Arrays.fill(lastKeyword, -1);
+		for (int i=0; i<keywords.length; i++)
+		{
+			String keyword = keywords[i];
+
+			if (! isLetters(keyword))
+			{
+				otherCount++;
+				continue;
+			}
+			for (int j=0; j+3<=keyword.length(); j++)
+			{
+				int trigram = trigramAt(keyword, j);
+				if (lastKeyword[trigram] != i)
+				{
+					lastKeyword[trigram] = i;
+					counts[trigram]++;
+				}
+			}
+		}
+
+		for (int t=0; t<TRIGRAM_COUNT; t++)
+		{
+			offsets[t + 1] = offsets[t] + counts[t];
+		}
+
+		// Second pass: fill in the positions of the keywords
+		postings = new int[offsets[TRIGRAM_COUNT]];
+		otherKeywords = new int[otherCount];
+
+		int[] next = Arrays.copyOf(offsets, TRIGRAM_COUNT);
+		int other = 0;
+
+		Arrays.fill(lastKeyword, -1);
+		for (int i=0; i<keywords.length; i++)
+		{
+			String keyword = keywords[i];
+
+			if (! isLetters(keyword))
+			{
+				otherKeywords[other++] = i;
+				continue;
+			}
+			for (int j=0; j+3<=keyword.length(); j++)
+			{
+				int trigram = trigramAt(keyword, j);
+				if (lastKeyword[trigram] != i)
+				{
+					lastKeyword[trigram] = i;
+					postings[next[trigram]++] = i;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Find the keywords that contain a substring, ignoring the case.
+	 * @param substring
+	 * @return the positions of the keywords, in ascending order
+	 */
+	public int[] find(String substring)
+	{
+		String query = substring.toUpperCase();
+
+		if (query.isEmpty())
+		{
+			return scan(query);
+		}
+
+		// Special characters, e.g. a sharp s, that change in upper case are not indexed
+		if (! isLetters(query) || query.length() != substring.length())
+		{
+			return scanIgnoringCase(substring.toLowerCase());
+		}
+
+		if (query.length() < 3)
+		{
+			return scan(query);
+		}
+
+		// Take the candidates of the rarest trigram of the query
+		int rarest = trigramAt(query, 0);
+		for (int j=1; j+3<=query.length(); j++)
+		{
+			int trigram = trigramAt(query, j);
+			if (postingCount(trigram) < postingCount(rarest))
+			{
+				rarest = trigram;
+			}
+		}
+
+		int[] result = new int[postingCount(rarest) + otherKeywords.length];
+		int count = 0;
+
+		for (int p=offsets[rarest]; p<offsets[rarest + 1]; p++)
+		{
+			if (keywords[postings[p]].contains(query))
+			{
+				result[count++] = postings[p];
+			}
+		}
+		for (int i : otherKeywords)
+		{
+			if (keywords[i].toUpperCase().contains(query))
+			{
+				result[count++] = i;
+			}
+		}
+
+		result = Arrays.copyOf(result, count);
+		if (otherKeywords.length > 0)
+		{
+			Arrays.sort(result);
+		}
+		return result;
+	}
+
+	private int[] scan(String query)
+	{
+		int[] result = new int[keywords.length];
+		int count = 0;
+
+		for (int i=0; i<keywords.length; i++)
+		{
+			String keyword = keywords[i];
+
+			if (keyword.contains(query) || (! isLetters(keyword) && keyword.toUpperCase().contains(query)))
+			{
+				result[count++] = i;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private int[] scanIgnoringCase(String lowerCaseQuery)
+	{
+		int[] result = new int[keywords.length];
+		int count = 0;
+
+		for (int i=0; i<keywords.length; i++)
+		{
+			if (keywords[i].toLowerCase().contains(lowerCaseQuery))
+			{
+				result[count++] = i;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private int postingCount(int trigram)
+	{
+		return offsets[trigram + 1] - offsets[trigram];
+	}
+
+	private static int trigramAt(String keyword, int index)
+	{
+		return ((keyword.charAt(index) - 'A') * ALPHABET_SIZE
+				+ (keyword.charAt(index + 1) - 'A')) * ALPHABET_SIZE
+				+ (keyword.charAt(index + 2) - 'A');
+	}
+
+	private static boolean isLetters(String keyword)
+	{
+		for (int i=0; i<keyword.length(); i++)
+		{
+			char c = keyword.charAt(i);
+			if (c < 'A' || c > 'Z')
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,99 @@
+package cpg.mvc.crossword.model;
+
+/**
+ * The six directions of a keyword in a crossword puzzle. A keyword starts
+ * in a field next to its clue field and goes to the right or down.<br>
+ * <br>
+ * - HORIZONTAL_RIGHT: to the right of the clue field in horizontal direction.<br>
+ * - VERTICAL_DOWN: underneath the clue field in vertical direction.<br>
+ * - RIGHT_DOWN: to the right of the clue field in vertical direction.<br>
+ * - LEFT_DOWN: to the left of the clue field in vertical direction.<br>
+ * - TOP_RIGHT: above the clue field in horizontal direction.<br>
+ * - BOTTOM_RIGHT: underneath the clue field in horizontal direction.<br>
+ *
+ * @see PlacedWord
+ */
+public enum Orientation
+{
+	HORIZONTAL_RIGHT("horizontal-right", 0, 1, false),
+	VERTICAL_DOWN("vertical-down", 1, 0, true),
+	RIGHT_DOWN("right-down", 0, 1, true),
+	LEFT_DOWN("left-down", 0, -1, true),
+	TOP_RIGHT("top-right", -1, 0, false),
+	BOTTOM_RIGHT("bottom-right", 1, 0, false);
+
+	private final String label;
+
+	// The first letter, relative to the clue field
+	private final int rowOffset;
+	private final int columnOffset;
+
+	private final boolean vertical;
+
+
+	private Orientation(String label, int rowOffset, int columnOffset, boolean vertical)
+	{
+		this.label = label;
+		this.rowOffset = rowOffset;
+		this.columnOffset = columnOffset;
+		this.vertical = vertical;
+	}
+
+
+	/**
+	 * Get the orientation of a label.
+	 * @param label e.g. "vertical-down", the colon of a clue field may follow
+	 * @return the orientation or null, if there is none with the label
+	 */
+	public static Orientation fromLabel(String label)
+	{
+		String name = label.endsWith(":") ? label.substring(0, label.length() - 1) : label;
+
+		for (Orientation orientation : values())
+		{
+			if (orientation.label.equals(name))
+			{
+				return orientation;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the label of the orientation, e.g. "vertical-down".
+	 * @return
+	 */
+	public String getLabel()
+	{
+		return label;
+	}
+
+	public int getRowOffset()
+	{
+		return rowOffset;
+	}
+
+	public int getColumnOffset()
+	{
+		return columnOffset;
+	}
+
+	/**
+	 * Is the keyword read from the top down or from the left to the right?
+	 * @return
+	 */
+	public boolean isVertical()
+	{
+		return vertical;
+	}
+
+	public int getRowStep()
+	{
+		return vertical ? 1 : 0;
+	}
+
+	public int getColumnStep()
+	{
+		return vertical ? 0 : 1;
+	}
+}
@@ -0,0 +1,139 @@
+package cpg.mvc.crossword.model;
+
+/**
+ * A keyword that was placed into a crossword puzzle, with its clue, its
+ * orientation and the position of its clue field. The letters start in the
+ * field next to the clue field, that is given by the orientation.<br>
+ * <br>
+ * The placed words are immutable.<br>
+ *
+ * @see Crossword
+ * @see Orientation
+ */
+public final class PlacedWord
+{
+	private final String keyword;
+	private final String clue;
+	private final Orientation orientation;
+
+	// The clue field
+	private final int row;
+	private final int column;
+
+
+	/**
+	 * The constructor.
+	 * @param keyword
+	 * @param clue
+	 * @param orientation
+	 * @param row of the clue field
+	 * @param column of the clue field
+	 */
+	public PlacedWord(String keyword, String clue, Orientation orientation, int row, int column)
+	{
+		this.keyword = keyword;
+		this.clue = clue;
+		this.orientation = orientation;
+		this.row = row;
+		this.column = column;
+	}
+
+
+	public String getKeyword()
+	{
+		return keyword;
+	}
+
+	public String getClue()
+	{
+		return clue;
+	}
+
+	public Orientation getOrientation()
+	{
+		return orientation;
+	}
+
+	/**
+	 * Get the row of the clue field.
+	 * @return
+	 */
+	public int getRow()
+	{
+		return row;
+	}
+
+	/**
+	 * Get the column of the clue field.
+	 * @return
+	 */
+	public int getColumn()
+	{
+		return column;
+	}
+
+	/**
+	 * Get the number of letters.
+	 * @return
+	 */
+	public int getLength()
+	{
+		return keyword.length();
+	}
+
+	/**
+	 * Get the row of a letter.
+	 * @param index of the letter
+	 * @return
+	 */
+	public int getLetterRow(int index)
+	{
+		return row + orientation.getRowOffset() + index * orientation.getRowStep();
+	}
+
+	/**
+	 * Get the column of a letter.
+	 * @param index of the letter
+	 * @return
+	 */
+	public int getLetterColumn(int index)
+	{
+		return column + orientation.getColumnOffset() + index * orientation.getColumnStep();
+	}
+
+	public char getLetter(int index)
+	{
+		return keyword.charAt(index);
+	}
+
+	@Override
+	public boolean equals(Object object)
+	{
+		if (! (object instanceof PlacedWord))
+		{
+			return false;
+		}
+		PlacedWord other = (PlacedWord) object;
+		return keyword.equals(other.keyword) && clue.equals(other.clue) && orientation == other.orientation
+				&& row == other.row && column == other.column;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		int hash = keyword.hashCode();
+		hash = 31 * hash + clue.hashCode();
+		hash = 31 * hash + orientation.hashCode();
+		hash = 31 * hash + row;
+		return 31 * hash + column;
+	}
+
+	/**
+	 * The text of the clue field, e.g. "4 vertical-down: capital of Italy".
+	 */
+	@Override
+	public String toString()
+	{
+		return getLength() + " " + orientation.getLabel() + ": " + clue;
+	}
+}
@@ -7,6 +7,7 @@ import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.util.Pair;
 
@@ -17,20 +18,39 @@ import javafx.util.Pair;
  * that are hints for a specific keyword. It also gives information about
  * whether a keyword is checked, e.g. selected in a CheckBox.<br>
  * <br>
+ * The data is held in a compact WordEntry. The Word is the JavaFX adapter
+ * for the views: the properties are only created, when they are requested,
+ * e.g. for the rows that are shown in a TableView. Afterwards they are kept
+ * in sync with the WordEntry in both directions.<br>
+ * <br>
+ * The WordEntry is immutable, so a change of the Word replaces its entry
+ * and tells the WordList that contains the Word. Snapshots of the list
+ * keep the entries they were made of.<br>
+ * <br>
  * An entry in the clueList is a Pair that consists of a StringProperty
  * and a BooleanProperty, that represent the clue and the checked status of a
  * clue.<br>
  *
  * @see WordList
+ * @see WordEntry
  */
 public class Word
 {
 
-	private final StringProperty keyword;
+	private WordEntry entry;
+
+	// The list that contains the Word or null
+	private WordList wordList;
+
+	// The properties are created lazily
+	private StringProperty keyword;
 
-	private BooleanProperty checked = new SimpleBooleanProperty(false);
+	private BooleanProperty checked;
 
-	private ObservableList<Pair<StringProperty,BooleanProperty>> clueList = FXCollections.observableArrayList();
+	private ObservableList<Pair<StringProperty,BooleanProperty>> clueList;
+
+	// Is set while the clueList is updated from the entry
+	private boolean updatingClueList = false;
 
 
 
@@ -41,8 +61,7 @@ public class Word
 	 */
 	public Word(String keyword, String clue)
 	{
-		this.keyword = new SimpleStringProperty(keyword);
-		this.clueList.add(new Pair<StringProperty, BooleanProperty>(new SimpleStringProperty(clue), new SimpleBooleanProperty(false)));
+		this(new WordEntry(keyword, clue));
 	}
 
 	/**
@@ -52,12 +71,16 @@ public class Word
 	 */
 	public Word(String keyword, List<String> clueList)
 	{
-		this.keyword = new SimpleStringProperty(keyword);
+		this(new WordEntry(keyword, clueList));
+	}
 
-		for (String clue : clueList)
-		{
-			this.clueList.add(new Pair<StringProperty, BooleanProperty>(new SimpleStringProperty(clue), new SimpleBooleanProperty(false)));
-		}
+	/**
+	 * Constructor to make a new Word for an entry.
+	 * @param entry
+	 */
+	public Word(WordEntry entry)
+	{
+		this.entry = entry;
 	}
 
 
@@ -70,15 +93,20 @@ public class Word
 	{
 		// Check if the Word already contains the new clue
 		// In that case don't add it and return
-		for (Pair<StringProperty,BooleanProperty> clue : clueList)
+		WordEntry newEntry = entry.withClue(newClue);
+		if (newEntry == entry)
 		{
-			if (newClue == clue.getKey().get())
-			{
-				return;
-			}
+			return;
+		}
+		setEntry(newEntry);
+
+		// Otherwise the clue is added with the selection set to false
+		if (clueList != null)
+		{
+			updatingClueList = true;
+			clueList.add(createCluePair(entry.getClueCount() - 1));
+			updatingClueList = false;
 		}
-		// Otherwise add the clue to the clue list and set the selection to false
-		this.clueList.add(new Pair<StringProperty,BooleanProperty>(new SimpleStringProperty(newClue), new SimpleBooleanProperty(false)));
 	}
 
 
@@ -89,14 +117,119 @@ public class Word
 	 */
 	public void replaceClues(List<String> newClueList)
 	{
-		this.clueList.clear();
+		WordEntry newEntry = entry.withoutClues();
 
 		for (String clue : newClueList)
 		{
-			addClue(clue);
+			newEntry = newEntry.withClue(clue);
+		}
+		setEntry(newEntry);
+
+		if (clueList != null)
+		{
+			updatingClueList = true;
+			clueList.setAll(createCluePairs());
+			updatingClueList = false;
+		}
+	}
+
+
+	private Pair<StringProperty,BooleanProperty> createCluePair(int index)
+	{
+		StringProperty clue = new SimpleStringProperty(entry.getClue(index));
+		BooleanProperty clueChecked = new SimpleBooleanProperty(entry.isClueChecked(index));
+
+		Pair<StringProperty,BooleanProperty> pair = new Pair<>(clue, clueChecked);
+
+		// Changes in the view are written back to the entry
+		clue.addListener((observable, oldValue, newValue) -> {
+			if (! updatingClueList)
+			{
+				setEntry(entry.withClue(clueList.indexOf(pair), newValue));
+			}
+		});
+		clueChecked.addListener((observable, oldValue, newValue) -> {
+			if (! updatingClueList)
+			{
+				setEntry(entry.withClueChecked(clueList.indexOf(pair), newValue));
+			}
+		});
+
+		return pair;
+	}
+
+	private ObservableList<Pair<StringProperty,BooleanProperty>> createCluePairs()
+	{
+		ObservableList<Pair<StringProperty,BooleanProperty>> pairs = FXCollections.observableArrayList();
+
+		for (int i=0; i<entry.getClueCount(); i++)
+		{
+			pairs.add(createCluePair(i));
+		}
+		return pairs;
+	}
+
+	/**
+	 * Write the clues of the clueList back to the entry,
+	 * after the list was changed from outside.
+	 * @param change
+	 */
+	private void updateEntryClues(ListChangeListener.Change<? extends Pair<StringProperty,BooleanProperty>> change)
+	{
+		if (updatingClueList)
+		{
+			return;
+		}
+
+		String[] clues = new String[clueList.size()];
+		boolean[] checkedClues = new boolean[clueList.size()];
+
+		for (int i=0; i<clues.length; i++)
+		{
+			clues[i] = clueList.get(i).getKey().get();
+			checkedClues[i] = clueList.get(i).getValue().get();
+		}
+		setEntry(entry.withClues(clues, checkedClues));
+	}
+
+	private void setEntry(WordEntry newEntry)
+	{
+		if (newEntry == entry)
+		{
+			return;
+		}
+		WordEntry oldEntry = entry;
+		entry = newEntry;
+
+		if (wordList != null)
+		{
+			wordList.wordChanged(this, oldEntry);
 		}
 	}
 
+	/**
+	 * Move the clues of the Word to the clue store of a list.
+	 * @param clueStore
+	 */
+	void setClueStore(ClueStore clueStore)
+	{
+		setEntry(entry.withClueStore(clueStore));
+	}
+
+	/**
+	 * Set the list that contains the Word.
+	 * @param wordList or null
+	 */
+	void setWordList(WordList wordList)
+	{
+		this.wordList = wordList;
+	}
+
+	WordList getWordList()
+	{
+		return this.wordList;
+	}
+
 
 
 
@@ -106,36 +239,117 @@ public class Word
 
 	public String getKeyword()
 	{
-		return keyword.get();
+		return entry.getKeyword();
 	}
 
 	public void setKeyword(String keyword)
 	{
-		this.keyword.set(keyword);
+		setEntry(entry.withKeyword(keyword));
+
+		if (this.keyword != null)
+		{
+			this.keyword.set(keyword);
+		}
 	}
 
 	public StringProperty keywordProperty()
 	{
+		if (keyword == null)
+		{
+			keyword = new SimpleStringProperty(entry.getKeyword());
+			keyword.addListener((observable, oldValue, newValue) -> setEntry(entry.withKeyword(newValue)));
+		}
 		return keyword;
 	}
 
 	public Boolean getChecked()
 	{
-		return this.checked.get();
+		return entry.isChecked();
+	}
+
+	public boolean isChecked()
+	{
+		return entry.isChecked();
 	}
 
 	public void setChecked(Boolean checked)
 	{
-		this.checked.set(checked);
+		setEntry(entry.withChecked(checked));
+
+		if (this.checked != null)
+		{
+			this.checked.set(checked);
+		}
 	}
 
 	public BooleanProperty checkedProperty()
 	{
+		if (checked == null)
+		{
+			checked = new SimpleBooleanProperty(entry.isChecked());
+			checked.addListener((observable, oldValue, newValue) -> setEntry(entry.withChecked(newValue)));
+		}
 		return this.checked;
 	}
 
+	public int getClueCount()
+	{
+		return entry.getClueCount();
+	}
+
+	public String getClue(int index)
+	{
+		return entry.getClue(index);
+	}
+
+	public boolean isClueChecked(int index)
+	{
+		return entry.isClueChecked(index);
+	}
+
+	public void setClueChecked(int index, boolean checked)
+	{
+		setEntry(entry.withClueChecked(index, checked));
+
+		if (clueList != null)
+		{
+			updatingClueList = true;
+			clueList.get(index).getValue().set(checked);
+			updatingClueList = false;
+		}
+	}
+
+	/**
+	 * Get the clues without creating any properties.
+	 * @return unmodifiable list of clues
+	 */
+	public List<String> getClues()
+	{
+		return entry.getClues();
+	}
+
+	/**
+	 * Get the current entry of the Word. It is immutable and
+	 * is replaced, when the Word is changed.
+	 * @return
+	 */
+	public WordEntry getEntry()
+	{
+		return this.entry;
+	}
+
+	/**
+	 * Get the clues with their checked status as observable list, e.g. for a TableView.
+	 * The list is created on the first call.
+	 * @return
+	 */
 	public ObservableList<Pair<StringProperty,BooleanProperty>> getAll()
 	{
+		if (clueList == null)
+		{
+			clueList = createCluePairs();
+			clueList.addListener(this::updateEntryClues);
+		}
 		return this.clueList;
 	}
-}
\ No newline at end of file
+}
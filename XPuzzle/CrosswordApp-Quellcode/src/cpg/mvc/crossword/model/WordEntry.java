@@ -0,0 +1,422 @@
+package cpg.mvc.crossword.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compact model class for a word entry, without any JavaFX dependencies.
+ * It holds the keyword, the clues and the selection flags of the keyword
+ * and of each clue in plain fields and arrays.<br>
+ * <br>
+ * A WordEntry is immutable: every change returns a new entry and the arrays
+ * of an entry are never changed. So entries can be shared by snapshots of
+ * a WordList and read by background tasks, while the list is edited.<br>
+ * <br>
+ * The clue texts are kept in a ClueStore, the entry only holds their ids.
+ * The entries of a WordList share the store of the list, so equal clues
+ * are stored once. An entry that is not in a list yet has its own store
+ * and is moved to the store of the list, when it is added.<br>
+ * <br>
+ * Most keywords only have a few clues, so the array of clue ids has exactly
+ * the length of the clue list.<br>
+ * <br>
+ * The selection of the keyword and of the clues is kept in a bitmap:
+ * bit 0 is the keyword, bit (i + 1) is clue i. Clues after the first 63
+ * have their bits in an extra array, that is only created when needed.
+ * So the selection can be read without looking at every clue.<br>
+ * <br>
+ * The JavaFX properties for the views are provided by the Word, that
+ * wraps a WordEntry.<br>
+ *
+ * @see Word
+ * @see ClueStore
+ * @see WordListSnapshot
+ */
+public final class WordEntry
+{
+	private static final int[] NO_CLUES = new int[0];
+
+	// The bit of the keyword and the number of clue bits in the selection
+	private static final long KEYWORD_BIT = 1L;
+	private static final int CLUE_BITS = 63;
+
+	private final String keyword;
+
+	// The selection bitmap of the keyword and the first 63 clues
+	private final long selection;
+
+	// The selection bitmap of the further clues or null
+	private final long[] moreSelectedClues;
+
+	private final ClueStore clueStore;
+
+	private final int[] clueIds;
+
+
+	/**
+	 * Constructor for an entry without clues.
+	 * @param keyword
+	 */
+	public WordEntry(String keyword)
+	{
+		this(keyword, new ClueStore());
+	}
+
+	/**
+	 * Constructor for an entry without clues, whose clues are kept in the given store.
+	 * @param keyword
+	 * @param clueStore
+	 */
+	public WordEntry(String keyword, ClueStore clueStore)
+	{
+		this(keyword, clueStore, NO_CLUES, 0L, null);
+	}
+
+	/**
+	 * Constructor for an entry from keyword and single clue.
+	 * @param keyword
+	 * @param clue
+	 */
+	public WordEntry(String keyword, String clue)
+	{
+		this(keyword, Collections.singletonList(clue));
+	}
+
+	/**
+	 * Constructor for an entry from keyword and a list of clues.
+	 * @param keyword
+	 * @param clueList
+	 */
+	public WordEntry(String keyword, List<String> clueList)
+	{
+		this(keyword, clueList, new ClueStore());
+	}
+
+	/**
+	 * Constructor for an entry from keyword and a list of clues,
+	 * that are kept in the given store. Duplicate clues are left out.
+	 * @param keyword
+	 * @param clueList
+	 * @param clueStore
+	 */
+	public WordEntry(String keyword, List<String> clueList, ClueStore clueStore)
+	{
+		this(keyword, clueStore, internClues(clueList, clueStore), 0L, null);
+	}
+
+	private WordEntry(String keyword, ClueStore clueStore, int[] clueIds, long selection, long[] moreSelectedClues)
+	{
+		this.keyword = keyword;
+		this.clueStore = clueStore;
+		this.clueIds = clueIds.length == 0 ? NO_CLUES : clueIds;
+		this.selection = selection;
+		this.moreSelectedClues = moreSelectedClues;
+	}
+
+	private static int[] internClues(List<String> clueList, ClueStore clueStore)
+	{
+		int[] ids = new int[clueList.size()];
+		int count = 0;
+
+		for (String clue : clueList)
+		{
+			int id = clueStore.intern(clue);
+
+			if (indexOfClueId(ids, count, id) < 0)
+			{
+				ids[count++] = id;
+			}
+		}
+		return Arrays.copyOf(ids, count);
+	}
+
+
+	/**
+	 * Get an entry with a new clue.
+	 * @param newClue
+	 * @return the new entry or this entry, if it contains the clue already
+	 */
+	public WordEntry withClue(String newClue)
+	{
+		int id = clueStore.intern(newClue);
+
+		if (indexOfClueId(clueIds, clueIds.length, id) >= 0)
+		{
+			return this;
+		}
+
+		int count = clueIds.length;
+		int[] ids = Arrays.copyOf(clueIds, count + 1);
+		ids[count] = id;
+
+		// The new clue is not checked; its bit is still clear
+		return new WordEntry(keyword, clueStore, ids, selection, moreSelectedClues);
+	}
+
+	/**
+	 * Check if the entry contains a clue.
+	 * @param clue
+	 * @return
+	 */
+	public boolean containsClue(String clue)
+	{
+		int id = clueStore.indexOf(clue);
+
+		return id >= 0 && indexOfClueId(clueIds, clueIds.length, id) >= 0;
+	}
+
+	private static int indexOfClueId(int[] ids, int count, int id)
+	{
+		for (int i=0; i<count; i++)
+		{
+			if (ids[i] == id)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get an entry without clues.
+	 * @return
+	 */
+	public WordEntry withoutClues()
+	{
+		return new WordEntry(keyword, clueStore, NO_CLUES, selection & KEYWORD_BIT, null);
+	}
+
+	/**
+	 * Get an entry with other clues and selection flags of the clues.
+	 * @param newClues
+	 * @param newCheckedClues
+	 * @return
+	 */
+	WordEntry withClues(String[] newClues, boolean[] newCheckedClues)
+	{
+		int[] ids = new int[newClues.length];
+
+		for (int i=0; i<newClues.length; i++)
+		{
+			ids[i] = clueStore.intern(newClues[i]);
+		}
+
+		WordEntry entry = new WordEntry(keyword, clueStore, ids, selection & KEYWORD_BIT, null);
+		for (int i=0; i<newCheckedClues.length; i++)
+		{
+			if (newCheckedClues[i])
+			{
+				entry = entry.withClueChecked(i, true);
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Get an entry, whose clues are kept in another store, e.g. the store
+	 * of the WordList the entry is added to.
+	 * @param newClueStore
+	 * @return the new entry or this entry, if it uses the store already
+	 */
+	public WordEntry withClueStore(ClueStore newClueStore)
+	{
+		if (newClueStore == clueStore)
+		{
+			return this;
+		}
+
+		int[] ids = new int[clueIds.length];
+		for (int i=0; i<ids.length; i++)
+		{
+			ids[i] = newClueStore.intern(clueStore.get(clueIds[i]));
+		}
+		return new WordEntry(keyword, newClueStore, ids, selection, moreSelectedClues);
+	}
+
+	public WordEntry withKeyword(String newKeyword)
+	{
+		return new WordEntry(newKeyword, clueStore, clueIds, selection, moreSelectedClues);
+	}
+
+	public WordEntry withChecked(boolean checked)
+	{
+		long newSelection = checked ? selection | KEYWORD_BIT : selection & ~KEYWORD_BIT;
+
+		if (newSelection == selection)
+		{
+			return this;
+		}
+		return new WordEntry(keyword, clueStore, clueIds, newSelection, moreSelectedClues);
+	}
+
+	public WordEntry withClue(int index, String clue)
+	{
+		checkClueIndex(index);
+
+		int[] ids = clueIds.clone();
+		ids[index] = clueStore.intern(clue);
+
+		return new WordEntry(keyword, clueStore, ids, selection, moreSelectedClues);
+	}
+
+	public WordEntry withClueChecked(int index, boolean checked)
+	{
+		checkClueIndex(index);
+
+		if (isClueChecked(index) == checked)
+		{
+			return this;
+		}
+
+		if (index < CLUE_BITS)
+		{
+			long mask = 1L << (index + 1);
+			long newSelection = checked ? selection | mask : selection & ~mask;
+
+			return new WordEntry(keyword, clueStore, clueIds, newSelection, moreSelectedClues);
+		}
+
+		int bit = index - CLUE_BITS;
+		int length = (clueIds.length - CLUE_BITS + 63) / 64;
+		long[] newMoreSelectedClues = moreSelectedClues == null ? new long[length] : Arrays.copyOf(moreSelectedClues, length);
+
+		long mask = 1L << bit;
+		newMoreSelectedClues[bit / 64] = checked ? newMoreSelectedClues[bit / 64] | mask : newMoreSelectedClues[bit / 64] & ~mask;
+
+		return new WordEntry(keyword, clueStore, clueIds, selection, newMoreSelectedClues);
+	}
+
+	private void checkClueIndex(int index)
+	{
+		if (index < 0 || index >= clueIds.length)
+		{
+			throw new IndexOutOfBoundsException("Clue index: " + index);
+		}
+	}
+
+
+
+	/* ******************************
+	 * The Getter Methods:
+	 ********************************/
+
+	public String getKeyword()
+	{
+		return keyword;
+	}
+
+	public boolean isChecked()
+	{
+		return (selection & KEYWORD_BIT) != 0;
+	}
+
+	public int getClueCount()
+	{
+		return clueIds.length;
+	}
+
+	public String getClue(int index)
+	{
+		return clueStore.get(clueIds[index]);
+	}
+
+	public int getClueId(int index)
+	{
+		return clueIds[index];
+	}
+
+	public ClueStore getClueStore()
+	{
+		return clueStore;
+	}
+
+	public boolean isClueChecked(int index)
+	{
+		checkClueIndex(index);
+
+		if (index < CLUE_BITS)
+		{
+			return (selection & (1L << (index + 1))) != 0;
+		}
+
+		int bit = index - CLUE_BITS;
+		return moreSelectedClues != null && bit / 64 < moreSelectedClues.length
+				&& (moreSelectedClues[bit / 64] & (1L << bit)) != 0;
+	}
+
+	/**
+	 * Get the number of checked clues, by counting the bits of the selection.
+	 * @return
+	 */
+	public int getCheckedClueCount()
+	{
+		int count = Long.bitCount(selection & ~KEYWORD_BIT);
+
+		if (moreSelectedClues != null)
+		{
+			for (long bits : moreSelectedClues)
+			{
+				count = count + Long.bitCount(bits);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Get the index of the n-th checked clue.
+	 * @param n from 0 to getCheckedClueCount() - 1
+	 * @return index of the clue or -1, if there are not as many checked clues
+	 */
+	public int getCheckedClueIndex(int n)
+	{
+		long bits = selection & ~KEYWORD_BIT;
+		int count = Long.bitCount(bits);
+
+		if (n < count)
+		{
+			return nthSetBit(bits, n) - 1;
+		}
+		n = n - count;
+
+		if (moreSelectedClues != null)
+		{
+			for (int i=0; i<moreSelectedClues.length; i++)
+			{
+				count = Long.bitCount(moreSelectedClues[i]);
+				if (n < count)
+				{
+					return CLUE_BITS + i * 64 + nthSetBit(moreSelectedClues[i], n);
+				}
+				n = n - count;
+			}
+		}
+		return -1;
+	}
+
+	private static int nthSetBit(long bits, int n)
+	{
+		// Clear the lowest set bits, until the n-th is the lowest
+		for (int i=0; i<n; i++)
+		{
+			bits = bits & (bits - 1);
+		}
+		return Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * Get the clues as unmodifiable list.
+	 * @return
+	 */
+	public List<String> getClues()
+	{
+		List<String> clues = new ArrayList<>(clueIds.length);
+
+		for (int id : clueIds)
+		{
+			clues.add(clueStore.get(id));
+		}
+		return Collections.unmodifiableList(clues);
+	}
+}
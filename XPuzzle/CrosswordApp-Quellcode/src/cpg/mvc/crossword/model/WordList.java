@@ -2,17 +2,22 @@ package cpg.mvc.crossword.model;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.List;
+import java.util.Set;
 
+import cpg.util.BinaryDictionary;
 import cpg.util.FileHandler;
 import cpg.util.KeywordComparator;
-import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.StringProperty;
+import cpg.util.WordListWriter;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
-import javafx.util.Pair;
 
 
 /**
@@ -28,6 +33,29 @@ public class WordList
 {
 	private ObservableList<Word> wordData = FXCollections.observableArrayList();
 
+	private static final KeywordComparator KEYWORD_COMPARATOR = new KeywordComparator();
+
+	// Up to this number of runs, new Words are inserted into the word data,
+	// instead of replacing the whole list with the merged Words
+	private static final int MAX_INSERTED_RUNS = 64;
+
+	// Keeps every distinct clue text of the list once
+	private ClueStore clueStore = new ClueStore();
+
+	// Index from the keyword to the Word in wordData for quick lookups
+	private final Map<String, Word> keywordIndex = new HashMap<>();
+
+	// Index from the sorted letters to the keywords for anagram queries,
+	// it is built on the first query and then kept up to date, or null
+	private KeywordAnagramIndex anagramIndex;
+
+	// The last snapshot, as long as the list was not changed, or null
+	private WordListSnapshot snapshot;
+
+	// The keywords with their substring and pattern indexes, until a
+	// keyword or the list itself is changed, or null
+	private KeywordIndexes keywordIndexes;
+
 
 
 	/**
@@ -35,6 +63,9 @@ public class WordList
 	 */
 	public WordList()
 	{
+		// The indexes follow every change of the word data, also the changes
+		// that are made directly on the list, e.g. by the table view.
+		wordData.addListener(this::updateKeywordIndex);
 	}
 
 	/**
@@ -44,10 +75,8 @@ public class WordList
 	 */
 	public WordList(File file) throws IOException
 	{
+		this();
 		loadFromFile(file);
-
-		// Keep the WordList sorted:
-		Collections.sort(wordData, new KeywordComparator());
 	}
 
 
@@ -68,11 +97,7 @@ public class WordList
 		// else add the new Word to the list
 		else
 		{
-			Word newWordData = new Word(keyword, clue);
-			this.wordData.add(newWordData);
-
-			// Keep the WordList sorted:
-			Collections.sort(wordData, new KeywordComparator());
+			insertWord(createWord(keyword, Collections.singletonList(clue)));
 		}
 	}
 
@@ -80,32 +105,51 @@ public class WordList
 	{
 		// If the WordList already contains an Word with the
 		// given keyword, only add the clue to the existing keyword
-		if (containsKeyword(newWord.getKeyword()))
+		Word word = keywordIndex.get(newWord.getKeyword());
+
+		if (word != null)
 		{
-			// Go through all the clues of the Word and add them to the existing Word
-			for (Pair<StringProperty,BooleanProperty> clue : newWord.getAll())
-			{
-				addClue(newWord.getKeyword(), clue.getKey().get());
-			}
+			addClues(word, newWord);
 		}
 		else
 		{
-			this.wordData.add(newWord);
+			insertWord(newWord);
+		}
+	}
 
-			// Keep the WordList sorted:
-			Collections.sort(wordData, new KeywordComparator());
+	/**
+	 * Insert a Word with a new keyword at its sorted position,
+	 * that is found by binary search.
+	 * @param newWord
+	 */
+	private void insertWord(Word newWord)
+	{
+		int index = Collections.binarySearch(wordData, newWord, KEYWORD_COMPARATOR);
+
+		// The keyword is not in the list, so the index is (-(insertion point) - 1)
+		wordData.add(-(index + 1), newWord);
+	}
+
+	/**
+	 * Go through all the clues of a Word and add them to the existing Word
+	 * @param word that is in the list
+	 * @param newWord with the clues to add
+	 */
+	private static void addClues(Word word, Word newWord)
+	{
+		for (String clue : newWord.getClues())
+		{
+			word.addClue(clue);
 		}
 	}
 
 	public void addClue(String keyword, String newClue)
 	{
-		for (Word wordElement : wordData)
+		Word word = keywordIndex.get(keyword);
+
+		if (word != null)
 		{
-			if (keyword.equals(wordElement.getKeyword()))
-			{
-				wordElement.addClue(newClue);
-				break;
-			}
+			word.addClue(newClue);
 		}
 	}
 
@@ -127,18 +171,214 @@ public class WordList
 	public void clearList()
 	{
 		wordData.clear();
+
+		// Forget the clues of the removed Words
+		clueStore = new ClueStore();
+	}
+
+	/**
+	 * Create a new Word, whose clues are kept in the clue store of this list.
+	 * @param keyword
+	 * @param clues
+	 * @return
+	 */
+	private Word createWord(String keyword, List<String> clues)
+	{
+		return new Word(new WordEntry(keyword, clues, clueStore));
 	}
 
 	public boolean containsKeyword(String keyword)
 	{
-		for (Word wordElement : wordData)
+		return keywordIndex.containsKey(keyword);
+	}
+
+	/**
+	 * Is called by a Word of the list, when it was changed.
+	 * @param word
+	 * @param oldEntry the entry of the Word before the change
+	 */
+	void wordChanged(Word word, WordEntry oldEntry)
+	{
+		snapshot = null;
+
+		// Move the Word to its new keyword in the indexes
+		String oldKeyword = oldEntry.getKeyword();
+		if (! oldKeyword.equals(word.getKeyword()))
+		{
+			keywordIndexes = null;
+
+			if (keywordIndex.remove(oldKeyword, word) && anagramIndex != null)
+			{
+				anagramIndex.remove(oldKeyword);
+			}
+			keywordIndex.put(word.getKeyword(), word);
+			if (anagramIndex != null)
+			{
+				anagramIndex.add(word.getKeyword());
+			}
+		}
+	}
+
+	/**
+	 * Get an immutable snapshot of the list, e.g. to generate a crossword
+	 * in the background. The snapshot is kept and returned again,
+	 * until the list or one of its Words is changed.
+	 * @return
+	 */
+	public WordListSnapshot snapshot()
+	{
+		if (snapshot == null)
+		{
+			WordEntry[] entries = new WordEntry[wordData.size()];
+
+			for (int i=0; i<entries.length; i++)
+			{
+				entries[i] = wordData.get(i).getEntry();
+			}
+			snapshot = new WordListSnapshot(entries, keywordIndexes());
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Get the keywords of the list with their indexes. They are kept, while
+	 * only clues or the selection of the Words are changed.
+	 * @return
+	 */
+	private KeywordIndexes keywordIndexes()
+	{
+		if (keywordIndexes == null)
+		{
+			String[] keywords = new String[wordData.size()];
+
+			for (int i=0; i<keywords.length; i++)
+			{
+				keywords[i] = wordData.get(i).getKeyword();
+			}
+			keywordIndexes = new KeywordIndexes(keywords);
+		}
+		return keywordIndexes;
+	}
+
+	/**
+	 * Find the Words whose keywords match a pattern like "A??E?T", where "?"
+	 * stands for any letter. The query uses the pattern index of the keywords,
+	 * that is built on the first query after a keyword or the list itself was
+	 * changed. Changes of clues or of the selection keep the index.
+	 * @param pattern
+	 * @return the matching Words, sorted by keyword
+	 * @see KeywordPatternIndex
+	 */
+	public List<Word> findByPattern(String pattern)
+	{
+		// The indexes are up to date, so their positions are the positions in wordData
+		int[] matches = keywordIndexes().getPatternIndex().find(pattern);
+
+		List<Word> words = new ArrayList<>(matches.length);
+		for (int i : matches)
+		{
+			words.add(wordData.get(i));
+		}
+		return words;
+	}
+
+	/**
+	 * Find the Words whose keywords consist of exactly the letters of a text,
+	 * in any order, e.g. "LISTEN" finds "SILENT" and "LISTEN".
+	 * @param letters
+	 * @return the matching Words, sorted by keyword
+	 * @see KeywordAnagramIndex
+	 */
+	public List<Word> findAnagrams(String letters)
+	{
+		return getWords(anagramIndex().findAnagrams(letters));
+	}
+
+	/**
+	 * Find the Words whose keywords can be built from the letters of a text,
+	 * where every letter can be used as often as it occurs in the text.
+	 * @param letters
+	 * @return the matching Words, sorted by keyword
+	 * @see KeywordAnagramIndex
+	 */
+	public List<Word> findKeywordsFromLetters(String letters)
+	{
+		return getWords(anagramIndex().findSubsets(letters));
+	}
+
+	private KeywordAnagramIndex anagramIndex()
+	{
+		if (anagramIndex == null)
+		{
+			anagramIndex = new KeywordAnagramIndex();
+			for (String keyword : keywordIndex.keySet())
+			{
+				anagramIndex.add(keyword);
+			}
+		}
+		return anagramIndex;
+	}
+
+	private List<Word> getWords(List<String> keywords)
+	{
+		List<Word> words = new ArrayList<>(keywords.size());
+		for (String keyword : keywords)
 		{
-			if (keyword.equals(wordElement.getKeyword()))
+			words.add(keywordIndex.get(keyword));
+		}
+		words.sort(KEYWORD_COMPARATOR);
+		return words;
+	}
+
+	/**
+	 * Get the Word with the given keyword.
+	 * @param keyword
+	 * @return the Word or null, if the keyword is not in the list
+	 */
+	public Word getWord(String keyword)
+	{
+		return keywordIndex.get(keyword);
+	}
+
+	/**
+	 * Keep the keyword and anagram indexes up to date with a change of the word data.
+	 * @param change
+	 */
+	private void updateKeywordIndex(ListChangeListener.Change<? extends Word> change)
+	{
+		snapshot = null;
+		keywordIndexes = null;
+
+		while (change.next())
+		{
+			// Permutations, e.g. by sorting, don't change the index
+			if (change.wasPermutated())
+			{
+				continue;
+			}
+
+			for (Word word : change.getRemoved())
+			{
+				// Only remove the Word, if it was not added again in the same change
+				if (keywordIndex.remove(word.getKeyword(), word) && anagramIndex != null)
+				{
+					anagramIndex.remove(word.getKeyword());
+				}
+				word.setWordList(null);
+			}
+			for (Word word : change.getAddedSubList())
 			{
-				return true;
+				keywordIndex.put(word.getKeyword(), word);
+				if (anagramIndex != null)
+				{
+					anagramIndex.add(word.getKeyword());
+				}
+				word.setWordList(this);
+
+				// Share equal clues with the other Words of the list
+				word.setClueStore(clueStore);
 			}
 		}
-		return false;
 	}
 
 	/**
@@ -150,41 +390,265 @@ public class WordList
 	{
 		FileHandler loader = new FileHandler(file);
 
-		Map<String,List<String>> wordDictionary = loader.getLoadedData();
+		addAll(loader.getLoadedData());
+	}
+
+	/**
+	 * Add keywords with their clues to the word list, e.g. the data that was
+	 * loaded from a file. The clues of keywords that are already in the list
+	 * are added to the existing Word. The new Words are inserted in sorted
+	 * runs, so the views are not notified for every single Word.
+	 * @param wordDictionary
+	 */
+	public void addAll(Map<String,List<String>> wordDictionary)
+	{
+		List<Word> newWords = new ArrayList<>();
 
-		for (String key : wordDictionary.keySet())
+		for (Map.Entry<String, List<String>> entry : wordDictionary.entrySet())
 		{
+			Word word = keywordIndex.get(entry.getKey());
 
-			if (containsKeyword(key))
+			if (word != null)
 			{
 				// Go through all the clues of the Word and add them to the existing Word
-				for (String clue : wordDictionary.get(key))
+				for (String clue : entry.getValue())
 				{
-					addClue(key, clue);
+					word.addClue(clue);
 				}
 			}
 			else
 			{
-				wordData.add(new Word(key, wordDictionary.get(key)));
+				newWords.add(createWord(entry.getKey(), entry.getValue()));
+			}
+		}
+
+		mergeNewWords(newWords);
+	}
+
+	/**
+	 * Merge Words into the word list. The clues of Words whose keyword is
+	 * already in the list are added to the existing Word, the other Words
+	 * are merged into the list in sorted runs.
+	 * @param words
+	 */
+	public void merge(Collection<Word> words)
+	{
+		List<Word> newWords = new ArrayList<>();
+
+		for (Word newWord : words)
+		{
+			Word word = keywordIndex.get(newWord.getKeyword());
+
+			if (word != null)
+			{
+				addClues(word, newWord);
+			}
+			else
+			{
+				newWords.add(newWord);
+			}
+		}
+
+		mergeNewWords(newWords);
+	}
+
+	/**
+	 * Merge Words with keywords that are not in the list yet into the sorted
+	 * word data. Only the new Words are sorted, which is linear if they are
+	 * sorted already, e.g. when they come from a TreeMap. Then every run of new
+	 * Words that falls between two Words of the list is inserted at its
+	 * position, so the Words that are in the list already keep their place
+	 * and the views keep their selection.<br>
+	 * <br>
+	 * If the new Words are spread over too many places, each insertion would
+	 * shift the rest of the list. Then both sorted runs are merged in linear
+	 * time and published with one setAll instead.
+	 * @param newWords the Words to add
+	 */
+	private void mergeNewWords(List<Word> newWords)
+	{
+		if (newWords.isEmpty())
+		{
+			return;
+		}
+
+		newWords.sort(KEYWORD_COMPARATOR);
+
+		// Combine new Words with the same keyword
+		List<Word> sortedNewWords = new ArrayList<>(newWords.size());
+		for (Word newWord : newWords)
+		{
+			addNewWord(sortedNewWords, newWord);
+		}
+
+		// The positions in the word data, at which the runs of new Words start
+		List<Integer> runStarts = new ArrayList<>();
+		List<Integer> runIndexes = new ArrayList<>();
+
+		int i = 0;
+		for (int j = 0; j < sortedNewWords.size(); j++)
+		{
+			int previous = i;
+			while (i < wordData.size() && KEYWORD_COMPARATOR.compare(wordData.get(i), sortedNewWords.get(j)) <= 0)
+			{
+				i++;
+			}
+			if (j == 0 || i != previous)
+			{
+				runStarts.add(j);
+				runIndexes.add(i);
+			}
+		}
+		runStarts.add(sortedNewWords.size());
+
+		if (runIndexes.size() > MAX_INSERTED_RUNS)
+		{
+			wordData.setAll(mergeSorted(wordData, sortedNewWords));
+			return;
+		}
+
+		// Insert from the end, so the positions before are still valid
+		for (int run = runIndexes.size() - 1; run >= 0; run--)
+		{
+			wordData.addAll(runIndexes.get(run), sortedNewWords.subList(runStarts.get(run), runStarts.get(run + 1)));
+		}
+	}
+
+	/**
+	 * Merge two sorted lists of Words with different keywords in linear time.
+	 * @param sortedWords
+	 * @param newWords
+	 * @return the merged list
+	 */
+	private static List<Word> mergeSorted(List<Word> sortedWords, List<Word> newWords)
+	{
+		List<Word> mergedWords = new ArrayList<>(sortedWords.size() + newWords.size());
+
+		int i = 0;
+		int j = 0;
+		while (i < sortedWords.size() && j < newWords.size())
+		{
+			if (KEYWORD_COMPARATOR.compare(sortedWords.get(i), newWords.get(j)) <= 0)
+			{
+				mergedWords.add(sortedWords.get(i++));
+			}
+			else
+			{
+				mergedWords.add(newWords.get(j++));
+			}
+		}
+		while (i < sortedWords.size())
+		{
+			mergedWords.add(sortedWords.get(i++));
+		}
+		while (j < newWords.size())
+		{
+			mergedWords.add(newWords.get(j++));
+		}
+
+		return mergedWords;
+	}
+
+	/**
+	 * Add a new Word to the end of the sorted new Words. If the new Words
+	 * contain the same keyword several times, they are combined into one Word.
+	 * @param mergedWords
+	 * @param newWord
+	 */
+	private static void addNewWord(List<Word> mergedWords, Word newWord)
+	{
+		int last = mergedWords.size() - 1;
+
+		if (last >= 0 && mergedWords.get(last).getKeyword().equals(newWord.getKeyword()))
+		{
+			addClues(mergedWords.get(last), newWord);
+		}
+		else
+		{
+			mergedWords.add(newWord);
+		}
+	}
+
+	/**
+	 * Apply the changes of a delta to the word list: removed keywords are
+	 * removed, the clues of changed keywords are replaced and added keywords
+	 * are added. The removed Words are removed in one step and the added Words
+	 * are inserted at their sorted positions, so the other Words stay in place.
+	 * @param delta
+	 */
+	public void applyChanges(WordListDelta delta)
+	{
+		if (delta.isEmpty())
+		{
+			return;
+		}
+
+		Set<Word> removedWords = new HashSet<>();
+		for (String keyword : delta.getRemoved())
+		{
+			Word word = keywordIndex.get(keyword);
+			if (word != null)
+			{
+				removedWords.add(word);
+			}
+		}
+		wordData.removeAll(removedWords);
+
+		List<Word> newWords = new ArrayList<>();
+
+		for (Map.Entry<String, List<String>> entry : delta.getChanged().entrySet())
+		{
+			Word word = keywordIndex.get(entry.getKey());
+
+			if (word != null)
+			{
+				word.replaceClues(entry.getValue());
+			}
+			else
+			{
+				// The word was deleted in the list in the meantime
+				newWords.add(createWord(entry.getKey(), entry.getValue()));
+			}
+		}
 
-				// Keep the WordList sorted:
+		for (Map.Entry<String, List<String>> entry : delta.getAdded().entrySet())
+		{
+			Word word = keywordIndex.get(entry.getKey());
 
+			if (word != null)
+			{
+				// The word was added in the list in the meantime
+				for (String clue : entry.getValue())
+				{
+					word.addClue(clue);
+				}
+			}
+			else
+			{
+				newWords.add(createWord(entry.getKey(), entry.getValue()));
 			}
 		}
 
-		// Keep the WordList sorted:
-		Collections.sort(wordData, new KeywordComparator());
+		mergeNewWords(newWords);
 	}
 
 	/**
 	 * Save the current word list to a file.
 	 * @param file
+	 * @throws IOException
 	 */
-	public void saveToFile(File file)
+	public void saveToFile(File file) throws IOException
 	{
-		FileHandler loader = new FileHandler();
-		loader.loadDataFromWordList(this);
-		loader.writeToFile(file);
+		if (file.getName().endsWith(BinaryDictionary.FILE_EXTENSION))
+		{
+			FileHandler loader = new FileHandler();
+			loader.loadDataFromWordList(this);
+			BinaryDictionary.write(loader.getLoadedData(), file);
+			return;
+		}
+
+		// Text files are streamed directly from the word list
+		new WordListWriter(file).write(this);
 	}
 
 
@@ -192,4 +656,9 @@ public class WordList
 	{
 		return this.wordData;
 	}
+
+	public ClueStore getClueStore()
+	{
+		return this.clueStore;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package cpg.mvc.crossword.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The differences between two versions of word data, e.g. the word list file
+ * before and after it was edited. It consists of the keywords that were
+ * added, the keywords that were removed and the keywords whose clues were
+ * changed (with their new clues).<br>
+ * <br>
+ * A delta can be applied to a WordList in one step.<br>
+ *
+ * @see WordList#applyChanges(WordListDelta)
+ */
+public class WordListDelta
+{
+	private final Map<String, List<String>> added = new TreeMap<>();
+
+	private final Set<String> removed = new TreeSet<>();
+
+	private final Map<String, List<String>> changed = new TreeMap<>();
+
+
+	/**
+	 * Compute the differences between two versions of word data.
+	 * @param oldData keywords with their clues before
+	 * @param newData keywords with their clues after
+	 * @return the delta from the old to the new data
+	 */
+	public static WordListDelta compute(Map<String, List<String>> oldData, Map<String, List<String>> newData)
+	{
+		WordListDelta delta = new WordListDelta();
+
+		for (Map.Entry<String, List<String>> entry : newData.entrySet())
+		{
+			List<String> oldClues = oldData.get(entry.getKey());
+
+			if (oldClues == null)
+			{
+				delta.added.put(entry.getKey(), entry.getValue());
+			}
+			else if (! oldClues.equals(entry.getValue()))
+			{
+				delta.changed.put(entry.getKey(), entry.getValue());
+			}
+		}
+
+		for (String keyword : oldData.keySet())
+		{
+			if (! newData.containsKey(keyword))
+			{
+				delta.removed.add(keyword);
+			}
+		}
+
+		return delta;
+	}
+
+	public boolean isEmpty()
+	{
+		return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+	}
+
+
+
+	/* ******************************
+	 * The Getter Methods:
+	 ********************************/
+
+	public Map<String, List<String>> getAdded()
+	{
+		return Collections.unmodifiableMap(this.added);
+	}
+
+	public Set<String> getRemoved()
+	{
+		return Collections.unmodifiableSet(this.removed);
+	}
+
+	public Map<String, List<String>> getChanged()
+	{
+		return Collections.unmodifiableMap(this.changed);
+	}
+}
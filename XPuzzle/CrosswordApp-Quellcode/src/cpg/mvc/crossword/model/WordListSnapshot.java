@@ -0,0 +1,125 @@
+package cpg.mvc.crossword.model;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * An immutable snapshot of a WordList, e.g. as input for the crossword
+ * generator, that runs in the background while the list is edited.<br>
+ * <br>
+ * The snapshot is an array of the WordEntries of the list, sorted by keyword.
+ * The entries are immutable and shared with the list, so making a snapshot
+ * only copies the references. A change of the list or of a Word replaces
+ * entries in the list, but not in the snapshot. The WordList keeps its
+ * snapshot, until it is changed, so the entries are not copied again,
+ * unless the list was edited in the meantime. The keyword indexes are kept
+ * even longer, until a keyword is changed.<br>
+ *
+ * @see WordList#snapshot()
+ * @see WordEntry
+ */
+public final class WordListSnapshot
+{
+	private final WordEntry[] entries;
+
+	// The keywords of the entries with their indexes, shared with the WordList
+	private final KeywordIndexes keywordIndexes;
+
+
+	/**
+	 * Constructor.
+	 * @param entries sorted by keyword, the array is not copied
+	 * @param keywordIndexes over the keywords of the entries
+	 */
+	WordListSnapshot(WordEntry[] entries, KeywordIndexes keywordIndexes)
+	{
+		this.entries = entries;
+		this.keywordIndexes = keywordIndexes;
+	}
+
+
+	public int size()
+	{
+		return entries.length;
+	}
+
+	public WordEntry getEntry(int index)
+	{
+		return entries[index];
+	}
+
+	/**
+	 * Find the entry of a keyword by binary search.
+	 * @param keyword
+	 * @return index or -1, if the snapshot does not contain the keyword
+	 */
+	public int indexOf(String keyword)
+	{
+		int low = 0;
+		int high = entries.length - 1;
+
+		while (low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			int comparison = entries[middle].getKeyword().compareTo(keyword);
+
+			if (comparison < 0)
+			{
+				low = middle + 1;
+			}
+			else if (comparison > 0)
+			{
+				high = middle - 1;
+			}
+			else
+			{
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the trigram index over the keywords of the snapshot. It is built
+	 * on the first call, so this should be called from a background task.
+	 * @return
+	 * @see KeywordIndexes#getTrigramIndex()
+	 */
+	public KeywordTrigramIndex getTrigramIndex()
+	{
+		return keywordIndexes.getTrigramIndex();
+	}
+
+	/**
+	 * Get the length and position index over the keywords of the snapshot,
+	 * to find keywords by a pattern. It is built on the first call.
+	 * @return
+	 * @see KeywordIndexes#getPatternIndex()
+	 */
+	public KeywordPatternIndex getPatternIndex()
+	{
+		return keywordIndexes.getPatternIndex();
+	}
+
+	/**
+	 * Get the entries as unmodifiable list.
+	 * @return
+	 */
+	public List<WordEntry> getEntries()
+	{
+		return new AbstractList<WordEntry>()
+		{
+			@Override
+			public WordEntry get(int index)
+			{
+				return entries[index];
+			}
+
+			@Override
+			public int size()
+			{
+				return entries.length;
+			}
+		};
+	}
+}
@@ -1,7 +1,7 @@
 package cpg.mvc.crossword.view;
 
 import cpg.mvc.crossword.model.Word;
-import cpg.util.FileHandler;
+import cpg.util.KeywordNormalizer;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
@@ -37,6 +37,9 @@ public class AddKeywordDialogController
 
 	private Word newWord;
 
+	// Checks and converts the keyword into an appropriate format.
+	private final KeywordNormalizer normalizer = new KeywordNormalizer();
+
 	private boolean okClicked = false;
 
 
@@ -62,9 +65,8 @@ public class AddKeywordDialogController
 		{
 			String keyword = keywordField.getText();
 
-			// Provides a method to convert the keyword string into an appropriate format.
-			FileHandler loader = new FileHandler();
-			keyword = loader.normalizeKeyword(keyword);
+			// Convert the keyword string into an appropriate format.
+			keyword = normalizer.normalizeKeyword(keyword);
 
 			this.newWord = new Word(keyword, mainClueField.getText());
 
@@ -94,9 +96,6 @@ public class AddKeywordDialogController
 
 	private boolean isValidInput()
 	{
-		// Provides a method to check if the keyword has a correct format.
-		FileHandler loader = new FileHandler();
-
 		if (keywordField.getText() == null || keywordField.getText().length() == 0)
 		{
 			return false;
@@ -105,7 +104,7 @@ public class AddKeywordDialogController
 		{
 			return false;
 		}
-		else if (! loader.isCorrectKeyword(keywordField.getText()))
+		else if (! normalizer.isCorrectKeyword(keywordField.getText()))
 		{
 			return false;
 		}
@@ -117,9 +116,6 @@ public class AddKeywordDialogController
 
 	private void showErrorMessage()
 	{
-		// Provides a method to check if the keyword has a correct format.
-		FileHandler loader = new FileHandler();
-
 		String errorMessage = "Error: \n";
 
 		if (keywordField.getText() == null || keywordField.getText().length() == 0)
@@ -132,7 +128,7 @@ public class AddKeywordDialogController
 			errorMessage += "No valid clue!\n";
 		}
 
-		if (! loader.isCorrectKeyword(keywordField.getText()))
+		if (! normalizer.isCorrectKeyword(keywordField.getText()))
 		{
 			errorMessage += "No valid keyword format!\n";
 		}
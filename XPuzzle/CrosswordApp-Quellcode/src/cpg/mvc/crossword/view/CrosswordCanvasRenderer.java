@@ -0,0 +1,252 @@
+package cpg.mvc.crossword.view;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import cpg.mvc.crossword.model.Crossword;
+import cpg.mvc.crossword.model.Orientation;
+import cpg.util.ClueLayout;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+/**
+ * This class draws a crossword from its placed words onto a Canvas. It
+ * needs no nodes for the squares: the whole puzzle is drawn in one pass, so
+ * even large puzzles are shown and scrolled at once.<br>
+ * <br>
+ * The clue texts are laid out by the ClueLayout, that wraps them into lines
+ * and chooses the font size. The layout of a clue is made only once and kept
+ * in a cache that is shared by all the renderers, because the same clues come
+ * up again, e.g. when a puzzle is filled up.<br>
+ * <br>
+ * The renderer can also draw a part of the puzzle, e.g. for a page or a
+ * tile of a large puzzle. It must be used on the JavaFX Application Thread.<br>
+ *
+ * @see CrosswordViewport
+ * @see CrosswordPrinter
+ */
+public class CrosswordCanvasRenderer
+{
+	static final int SQUARE_WIDTH = 50;
+	static final int SQUARE_HEIGHT = 50;
+
+	// The fonts of the clues by their size
+	private static final Map<Double, Font> CLUE_FONTS = new HashMap<>();
+
+	private final Crossword crossword;
+
+
+	/**
+	 * The constructor.
+	 * @param crossword
+	 */
+	public CrosswordCanvasRenderer(Crossword crossword)
+	{
+		this.crossword = crossword;
+	}
+
+
+	/**
+	 * Make a new Canvas with the whole crossword.
+	 * @return
+	 */
+	public Canvas createCanvas()
+	{
+		int rows = crossword.getRows();
+		int columns = crossword.getColumns();
+
+		Canvas canvas = new Canvas(columns * SQUARE_WIDTH + 1, rows * SQUARE_HEIGHT + 1);
+		draw(canvas.getGraphicsContext2D(), 0, 0, rows, columns);
+
+		return canvas;
+	}
+
+	/**
+	 * Draw the squares of a part of the crossword. The squares are drawn at
+	 * their position in the whole crossword, so the transform of the
+	 * GraphicsContext has to move the part to the right place.
+	 * @param gc
+	 * @param firstRow
+	 * @param firstColumn
+	 * @param endRow the row after the last row to draw
+	 * @param endColumn the column after the last column to draw
+	 */
+	public void draw(GraphicsContext gc, int firstRow, int firstColumn, int endRow, int endColumn)
+	{
+		draw(gc, firstRow, firstColumn, endRow, endColumn, true);
+	}
+
+	/**
+	 * Draw the squares of a part of the crossword with or without the clue
+	 * texts, e.g. without them at a zoom level, where they can't be read.
+	 * @param gc
+	 * @param firstRow
+	 * @param firstColumn
+	 * @param endRow the row after the last row to draw
+	 * @param endColumn the column after the last column to draw
+	 * @param withClues
+	 */
+	public void draw(GraphicsContext gc, int firstRow, int firstColumn, int endRow, int endColumn, boolean withClues)
+	{
+		firstRow = Math.max(firstRow, 0);
+		firstColumn = Math.max(firstColumn, 0);
+		endRow = Math.min(endRow, crossword.getRows());
+		endColumn = Math.min(endColumn, crossword.getColumns());
+
+		// The squares
+		for (int i=firstRow; i<endRow; i++)
+		{
+			for (int j=firstColumn; j<endColumn; j++)
+			{
+				double x = j * SQUARE_WIDTH;
+				double y = i * SQUARE_HEIGHT;
+
+				if (crossword.isEmptyField(i, j))
+				{
+					gc.setFill(Color.GREY);
+					gc.fillRect(x + 0.5, y + 0.5, SQUARE_WIDTH - 1, SQUARE_HEIGHT - 1);
+				}
+				else if (crossword.isClueField(i, j))
+				{
+					gc.setFill(Color.BLACK);
+					gc.fillRect(x, y, SQUARE_WIDTH, SQUARE_HEIGHT);
+				}
+			}
+		}
+
+		// The lines of the grid
+		gc.setStroke(Color.BLACK);
+		gc.setLineWidth(1);
+		for (int i=firstRow; i<=endRow; i++)
+		{
+			gc.strokeLine(firstColumn * SQUARE_WIDTH, i * SQUARE_HEIGHT + 0.5, endColumn * SQUARE_WIDTH + 1, i * SQUARE_HEIGHT + 0.5);
+		}
+		for (int j=firstColumn; j<=endColumn; j++)
+		{
+			gc.strokeLine(j * SQUARE_WIDTH + 0.5, firstRow * SQUARE_HEIGHT, j * SQUARE_WIDTH + 0.5, endRow * SQUARE_HEIGHT + 1);
+		}
+
+		// The clues
+		gc.setFill(Color.WHITE);
+		gc.setTextBaseline(VPos.BASELINE);
+		for (int i=firstRow; i<endRow && withClues; i++)
+		{
+			for (int j=firstColumn; j<endColumn; j++)
+			{
+				if (crossword.isClueField(i, j))
+				{
+					drawClue(gc, crossword.getClueWord(i, j).getClue(), j * SQUARE_WIDTH, i * SQUARE_HEIGHT);
+				}
+			}
+		}
+
+		// The arrows, also of the clue fields next to the part that point into it
+		gc.setFill(Color.BLACK);
+		for (int i=Math.max(firstRow - 1, 0); i<Math.min(endRow + 1, crossword.getRows()); i++)
+		{
+			for (int j=Math.max(firstColumn - 1, 0); j<Math.min(endColumn + 1, crossword.getColumns()); j++)
+			{
+				if (crossword.isClueField(i, j))
+				{
+					drawArrow(gc, crossword.getClueWord(i, j).getOrientation(), j, i);
+				}
+			}
+		}
+	}
+
+	public int getRows()
+	{
+		return crossword.getRows();
+	}
+
+	public int getColumns()
+	{
+		return crossword.getColumns();
+	}
+
+	private static void drawClue(GraphicsContext gc, String clue, double x, double y)
+	{
+		ClueLayout layout = ClueLayout.get(clue);
+
+		gc.setFont(getClueFont(layout.getFontSize()));
+		for (int k=0; k<layout.getLineCount(); k++)
+		{
+			// A line is squeezed, if the font on this system is wider than Arial
+			gc.fillText(layout.getLine(k), x + ClueLayout.FIELD_MARGIN + layout.getX(k),
+					y + ClueLayout.FIELD_MARGIN + layout.getBaseline(k), layout.getLineWidth(k));
+		}
+	}
+
+	private static Font getClueFont(double size)
+	{
+		Font font = CLUE_FONTS.get(size);
+		if (font == null)
+		{
+			font = Font.font(ClueLayout.FONT_FAMILY, size);
+			CLUE_FONTS.put(size, font);
+		}
+		return font;
+	}
+
+	/**
+	 * Draw the arrow of a clue field into the square it points to.
+	 * @param gc
+	 * @param orientation
+	 * @param posX of the clue field
+	 * @param posY of the clue field
+	 */
+	private static void drawArrow(GraphicsContext gc, Orientation orientation, int posX, int posY)
+	{
+		switch (orientation)
+		{
+			case HORIZONTAL_RIGHT:
+				drawRightTriangle(gc, origin(posX + 1), origin(posY) + 19);
+				break;
+			case VERTICAL_DOWN:
+				drawDownTriangle(gc, origin(posX) + 19, origin(posY + 1));
+				break;
+			case RIGHT_DOWN:
+				drawLines(gc, origin(posX + 1), origin(posY), 0, 8, 14, 8, 14, 35);
+				drawDownTriangle(gc, origin(posX + 1) + 8, origin(posY) + 30);
+				break;
+			case LEFT_DOWN:
+				drawLines(gc, origin(posX - 1), origin(posY), 50, 8, 36, 8, 36, 35);
+				drawDownTriangle(gc, origin(posX - 1) + 30, origin(posY) + 30);
+				break;
+			case TOP_RIGHT:
+				drawLines(gc, origin(posX), origin(posY - 1), 8, 50, 8, 36, 35, 36);
+				drawRightTriangle(gc, origin(posX) + 30, origin(posY - 1) + 30);
+				break;
+			case BOTTOM_RIGHT:
+				drawLines(gc, origin(posX), origin(posY + 1), 8, 0, 8, 14, 35, 14);
+				drawRightTriangle(gc, origin(posX) + 30, origin(posY + 1) + 8);
+				break;
+			default:
+				break;
+		}
+	}
+
+	private static double origin(int position)
+	{
+		return position * SQUARE_WIDTH;
+	}
+
+	private static void drawRightTriangle(GraphicsContext gc, double x, double y)
+	{
+		gc.fillPolygon(new double[] {x, x, x + 10}, new double[] {y, y + 12, y + 6}, 3);
+	}
+
+	private static void drawDownTriangle(GraphicsContext gc, double x, double y)
+	{
+		gc.fillPolygon(new double[] {x, x + 12, x + 6}, new double[] {y, y, y + 10}, 3);
+	}
+
+	private static void drawLines(GraphicsContext gc, double x, double y,
+			double x1, double y1, double x2, double y2, double x3, double y3)
+	{
+		gc.strokePolyline(new double[] {x + x1, x + x2, x + x3}, new double[] {y + y1, y + y2, y + y3}, 3);
+	}
+}
@@ -0,0 +1,250 @@
+package cpg.mvc.crossword.view;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.print.PageLayout;
+import javafx.print.Paper;
+import javafx.print.Printer;
+import javafx.print.PrinterJob;
+import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Button;
+import javafx.scene.control.Pagination;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.paint.Color;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/**
+ * This class prints a crossword puzzle on as many pages as needed in one
+ * PrinterJob, so the printer gets one document instead of a job per page.<br>
+ * <br>
+ * The pages are not made in advance: a page is drawn by the
+ * CrosswordCanvasRenderer onto one Canvas, that is used again for every
+ * page, just before it is printed. The number of squares on a page is
+ * taken from the printable area of the page layout, and the rows and
+ * columns are spread evenly over the pages.<br>
+ * <br>
+ * The preview shows the pages one by one. The images of the recently shown
+ * pages are kept, so paging back and forth does not draw them again.
+ * It must be used on the JavaFX Application Thread.<br>
+ *
+ * @see CrosswordCanvasRenderer
+ */
+public class CrosswordPrinter
+{
+	// The number of page images that are kept for the preview
+	private static final int PAGE_CACHE_SIZE = 8;
+
+	// The page layout of the preview, if there is no printer
+	private static final double DEFAULT_PRINTABLE_WIDTH = Paper.A4.getWidth() - 2 * 36;
+	private static final double DEFAULT_PRINTABLE_HEIGHT = Paper.A4.getHeight() - 2 * 36;
+
+	private final CrosswordCanvasRenderer renderer;
+
+	// The canvas of all the pages
+	private Canvas pageCanvas;
+
+	private int pagesX;
+	private int pagesY;
+
+	private final Map<Integer, Image> pageImages = new LinkedHashMap<Integer, Image>(16, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, Image> eldest)
+		{
+			return size() > PAGE_CACHE_SIZE;
+		}
+	};
+
+
+	/**
+	 * The constructor.
+	 * @param renderer that draws the puzzle
+	 */
+	public CrosswordPrinter(CrosswordCanvasRenderer renderer)
+	{
+		this.renderer = renderer;
+
+		Printer printer = Printer.getDefaultPrinter();
+		if (printer != null)
+		{
+			setPageLayout(printer.getDefaultPageLayout());
+		}
+		else
+		{
+			setPrintableSize(DEFAULT_PRINTABLE_WIDTH, DEFAULT_PRINTABLE_HEIGHT);
+		}
+	}
+
+
+	/**
+	 * Split the puzzle into pages for the printable area of a page layout.
+	 * @param pageLayout
+	 */
+	public void setPageLayout(PageLayout pageLayout)
+	{
+		setPrintableSize(pageLayout.getPrintableWidth(), pageLayout.getPrintableHeight());
+	}
+
+	private void setPrintableSize(double printableWidth, double printableHeight)
+	{
+		// One point more for the last line of the grid
+		int columnsPerPage = Math.max((int) ((printableWidth - 1) / CrosswordCanvasRenderer.SQUARE_WIDTH), 1);
+		int rowsPerPage = Math.max((int) ((printableHeight - 1) / CrosswordCanvasRenderer.SQUARE_HEIGHT), 1);
+
+		pagesX = (renderer.getColumns() + columnsPerPage - 1) / columnsPerPage;
+		pagesY = (renderer.getRows() + rowsPerPage - 1) / rowsPerPage;
+
+		// The largest page of the even split
+		int columns = (renderer.getColumns() + pagesX - 1) / pagesX;
+		int rows = (renderer.getRows() + pagesY - 1) / pagesY;
+
+		pageCanvas = new Canvas(columns * CrosswordCanvasRenderer.SQUARE_WIDTH + 1,
+				rows * CrosswordCanvasRenderer.SQUARE_HEIGHT + 1);
+		pageImages.clear();
+	}
+
+	public int getPageCount()
+	{
+		return pagesX * pagesY;
+	}
+
+	/**
+	 * Print all the pages in one job. The job is ended, if all the pages were printed.
+	 * @param job
+	 * @return true, if all the pages were printed
+	 */
+	public boolean print(PrinterJob job)
+	{
+		setPageLayout(job.getJobSettings().getPageLayout());
+
+		for (int page=0; page<getPageCount(); page++)
+		{
+			if (! job.printPage(renderPage(page)))
+			{
+				job.cancelJob();
+				return false;
+			}
+		}
+		return job.endJob();
+	}
+
+	/**
+	 * Print all the pages with the default printer, after the user chose the
+	 * settings in the print dialog.
+	 * @param owner of the print dialog
+	 */
+	public void print(Window owner)
+	{
+		PrinterJob job = PrinterJob.createPrinterJob();
+
+		if (job != null && job.showPrintDialog(owner))
+		{
+			print(job);
+		}
+	}
+
+	/**
+	 * Show the pages in a new window, from where they can be printed.
+	 * @param owner
+	 */
+	public void showPreview(Window owner)
+	{
+		Stage previewStage = new Stage();
+		previewStage.setTitle("Print Preview");
+		previewStage.initOwner(owner);
+		previewStage.initModality(Modality.WINDOW_MODAL);
+
+		Pagination pagination = new Pagination(getPageCount(), 0);
+		pagination.setPageFactory(page -> {
+			ScrollPane scrollPane = new ScrollPane(new ImageView(getPageImage(page)));
+			scrollPane.setPadding(new Insets(10));
+			return scrollPane;
+		});
+
+		Button printButton = new Button("Print");
+		printButton.setOnAction(event -> {
+			print(previewStage);
+			previewStage.close();
+		});
+
+		Button closeButton = new Button("Close");
+		closeButton.setOnAction(event -> previewStage.close());
+
+		HBox buttons = new HBox(10, printButton, closeButton);
+		buttons.setAlignment(Pos.CENTER_RIGHT);
+		buttons.setPadding(new Insets(10));
+
+		BorderPane pane = new BorderPane(pagination);
+		pane.setBottom(buttons);
+
+		previewStage.setScene(new Scene(pane, Math.min(pageCanvas.getWidth() + 60, 800),
+				Math.min(pageCanvas.getHeight() + 140, 900)));
+		previewStage.show();
+	}
+
+	/**
+	 * Get the image of a page for the preview.
+	 * @param page
+	 * @return
+	 */
+	public Image getPageImage(int page)
+	{
+		Image image = pageImages.get(page);
+		if (image == null)
+		{
+			SnapshotParameters parameters = new SnapshotParameters();
+			parameters.setFill(Color.WHITE);
+			image = renderPage(page).snapshot(parameters, null);
+			pageImages.put(page, image);
+		}
+		return image;
+	}
+
+	/**
+	 * Draw a page onto the canvas of the pages.
+	 * @param page
+	 * @return
+	 */
+	private Canvas renderPage(int page)
+	{
+		int px = page % pagesX;
+		int py = page / pagesX;
+
+		int firstRow = renderer.getRows() * py / pagesY;
+		int firstColumn = renderer.getColumns() * px / pagesX;
+		int endRow = renderer.getRows() * (py + 1) / pagesY;
+		int endColumn = renderer.getColumns() * (px + 1) / pagesX;
+
+		GraphicsContext gc = pageCanvas.getGraphicsContext2D();
+		gc.clearRect(0, 0, pageCanvas.getWidth(), pageCanvas.getHeight());
+
+		gc.save();
+
+		// The arrows of the fields on the border must not reach out of the page
+		gc.beginPath();
+		gc.rect(0, 0, (endColumn - firstColumn) * CrosswordCanvasRenderer.SQUARE_WIDTH + 1,
+				(endRow - firstRow) * CrosswordCanvasRenderer.SQUARE_HEIGHT + 1);
+		gc.clip();
+
+		gc.translate(-firstColumn * CrosswordCanvasRenderer.SQUARE_WIDTH,
+				-firstRow * CrosswordCanvasRenderer.SQUARE_HEIGHT);
+		renderer.draw(gc, firstRow, firstColumn, endRow, endColumn);
+
+		gc.restore();
+		return pageCanvas;
+	}
+}
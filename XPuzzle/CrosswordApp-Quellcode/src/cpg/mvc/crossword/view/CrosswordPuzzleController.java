@@ -4,15 +4,23 @@ import java.util.Map;
 
 import cpg.mvc.crossword.CrosswordGenerator;
 import cpg.mvc.crossword.MainApp;
-import javafx.scene.layout.GridPane;
+import cpg.mvc.crossword.model.Crossword;
+import cpg.mvc.crossword.model.DictionarySnapshotBuilder;
+import cpg.mvc.crossword.model.DictionarySnapshotBuilder.Selection;
+import cpg.mvc.crossword.model.WordListSnapshot;
+import javafx.concurrent.Task;
 
 /**
  * This class takes a word dictionary with keywords (words to be guessed) and clues
  * (hints for a specific word) and gives it to the crosswordGenerator to generate
- * a 2 dimensional crossword array as crossword puzzle. After the crossword is
- * generated, the crosswordGridMakery makes a crossword GridPane out of the
- * 2 dimensional string array. To show this in a new window, the grid is set
- * into the crosswordPuzzleView.
+ * a crossword puzzle with the placed words. After the crossword is generated,
+ * the CrosswordCanvasRenderer draws the placed words onto a Canvas. To show
+ * this in a new window, a CrosswordViewport with the renderer is set into the
+ * crosswordPuzzleView.<br>
+ * <br>
+ * The dictionary is built from an immutable snapshot of the word list and the
+ * crossword is generated in a background task, so the word list can be edited
+ * in the meantime.<br>
  *
  */
 public class CrosswordPuzzleController
@@ -20,63 +28,109 @@ public class CrosswordPuzzleController
 	// Reference to the main application:
 	private MainApp mainApp;
 
-	String[][] crosswordArray;
+	Crossword crossword;
 
 	CrosswordGenerator crosswordGenerator;
 
 	CrosswordPuzzleView crosswordPuzzleView = new CrosswordPuzzleView();
 
+	// The word list, as it was when the crossword was requested
+	private final WordListSnapshot wordListSnapshot;
+
+	// The task that generates or fills up the crossword
+	private Task<Void> generationTask;
+
 
 	/**
 	 * The constructor.
-	 * @param wordDictionary
-	 * @param width
-	 * @param height
+	 * @param wordListSnapshot to take the words from
 	 */
-	public CrosswordPuzzleController(Map<String,String> wordDictionary)
+	public CrosswordPuzzleController(WordListSnapshot wordListSnapshot)
 	{
-		crosswordGenerator = new CrosswordGenerator(wordDictionary);
+		this.wordListSnapshot = wordListSnapshot;
 		crosswordPuzzleView.setMyController(this);
 	}
 
 	public void generateRandom(int width, int height)
 	{
-		crosswordGenerator.generateRandom(width, height);
-		crosswordArray = crosswordGenerator.getCrosswordPuzzle();
+		runGeneration(() -> {
+			Map<String,String> dictionary = new DictionarySnapshotBuilder().build(wordListSnapshot, Selection.ALL);
 
-		CrosswordGridMakery crosswordGridMakery = new CrosswordGridMakery(this.crosswordArray);
-		GridPane crosswordGrid = crosswordGridMakery.getCrosswordGrid();
-
-		crosswordPuzzleView.setCrosswordGrid(crosswordGrid);
-		crosswordPuzzleView.show();
+			crosswordGenerator = new CrosswordGenerator(dictionary);
+			crosswordGenerator.generateRandom(width, height);
+		}, this::showCrossword);
 	}
 
 	public void generateFromSelection()
 	{
-		crosswordGenerator.generateFromDictionary();
-		crosswordArray = crosswordGenerator.getCrosswordPuzzle();
+		runGeneration(() -> {
+			Map<String,String> dictionary = new DictionarySnapshotBuilder().build(wordListSnapshot, Selection.SELECTED);
 
-		CrosswordGridMakery crosswordGridMakery = new CrosswordGridMakery(this.crosswordArray);
-		GridPane crosswordGrid = crosswordGridMakery.getCrosswordGrid();
-
-		crosswordPuzzleView.setCrosswordGrid(crosswordGrid);
-		crosswordPuzzleView.show();
+			crosswordGenerator = new CrosswordGenerator(dictionary);
+			crosswordGenerator.generateFromDictionary();
+		}, this::showCrossword);
 	}
 
 	public void fillWithWords(int numberOfWords)
 	{
-		Map<String,String> dictionary = this.mainApp.getUnselectedWordsAsDictionary();
-
-		crosswordGenerator.fillUp(dictionary, numberOfWords);
-
-		CrosswordGridMakery crosswordGridMakery = new CrosswordGridMakery(this.crosswordArray);
-		GridPane crosswordGrid = crosswordGridMakery.getCrosswordGrid();
+		// Take the words, as they are in the word list now
+		WordListSnapshot snapshot = this.mainApp.getWordListSnapshot();
+
+		runGeneration(() -> {
+			Map<String,String> dictionary = new DictionarySnapshotBuilder().build(snapshot, Selection.UNSELECTED);
+
+			crosswordGenerator.fillUp(dictionary, numberOfWords);
+		}, () -> {
+			// Only the changed fields are drawn again in the open window
+			CrosswordCanvasRenderer renderer = new CrosswordCanvasRenderer(this.crossword);
+			this.crosswordPuzzleView.getCrosswordViewport().update(renderer, crosswordGenerator.getLastChanges());
+		});
+	}
 
-		crosswordPuzzleView.setCrosswordGrid(crosswordGrid);
+	/**
+	 * Run the generation in a background task and show the result on
+	 * the JavaFX Application thread, when it is finished. While a
+	 * generation is running, no other generation is started.
+	 * @param generation
+	 * @param onFinished
+	 */
+	private void runGeneration(Runnable generation, Runnable onFinished)
+	{
+		if (generationTask != null && generationTask.isRunning())
+		{
+			return;
+		}
+
+		Task<Void> task = new Task<Void>()
+		{
+			@Override
+			protected Void call() throws Exception
+			{
+				generation.run();
+				return null;
+			}
+		};
+
+		task.setOnSucceeded(event -> {
+			crossword = crosswordGenerator.getCrossword();
+			onFinished.run();
+		});
+		task.setOnFailed(event -> task.getException().printStackTrace());
+
+		generationTask = task;
+
+		Thread thread = new Thread(task, "CrosswordGenerator");
+		thread.setDaemon(true);
+		thread.start();
+	}
 
-		this.crosswordPuzzleView.getCrosswordStage().close();
-		this.crosswordPuzzleView.show();
+	private void showCrossword()
+	{
+		// The puzzle is drawn in tiles onto a Canvas instead of a node per square
+		CrosswordCanvasRenderer renderer = new CrosswordCanvasRenderer(this.crossword);
 
+		crosswordPuzzleView.setCrosswordViewport(new CrosswordViewport(renderer));
+		crosswordPuzzleView.show();
 	}
 
 
@@ -91,8 +145,8 @@ public class CrosswordPuzzleController
 
 	}
 
-	public String[][] getCrosswordArray()
+	public Crossword getCrossword()
 	{
-		return this.crosswordArray;
+		return this.crossword;
 	}
 }
\ No newline at end of file
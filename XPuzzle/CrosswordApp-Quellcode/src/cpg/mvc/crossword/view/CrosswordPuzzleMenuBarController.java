@@ -4,13 +4,14 @@ import java.io.File;
 import java.io.IOException;
 
 import cpg.mvc.crossword.MainApp;
-import cpg.util.SVGMakery;
+import cpg.mvc.crossword.model.Crossword;
+import cpg.util.PDFRenderer;
+import cpg.util.PNGRenderer;
+import cpg.util.SVGRenderer;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
-import javafx.print.PrinterJob;
 import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.GridPane;
 import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
@@ -18,7 +19,8 @@ import javafx.stage.Stage;
 /**
  * This is the controller class for the CrosswordPuzzleMenuBar.fxml that provides the
  * menu bar inside the CrosswordPuzzleView. It enables to save the crossword as an
- * SVG file, print the crossword puzzle and fill it up with a selected number of words.
+ * SVG, PDF or PNG file, print the crossword puzzle and fill it up with a
+ * selected number of words.
  *
  */
 public class CrosswordPuzzleMenuBarController
@@ -29,6 +31,22 @@ public class CrosswordPuzzleMenuBarController
 
     @FXML
     private void handleSaveAsSVG() throws IOException
+    {
+    	saveAsSVG(false);
+    }
+
+    /**
+     * Save the crossword as optimized SVG file, that is much smaller,
+     * e.g. to print large crosswords.
+     * @throws IOException
+     */
+    @FXML
+    private void handleSaveAsOptimizedSVG() throws IOException
+    {
+    	saveAsSVG(true);
+    }
+
+    private void saveAsSVG(boolean optimized) throws IOException
     {
         FileChooser fileChooser = new FileChooser();
 
@@ -48,42 +66,103 @@ public class CrosswordPuzzleMenuBarController
                 file = new File(file.getPath() + ".svg");
             }
 
-        	String[][] crossword = crosswordPuzzleView.getMyController().getCrosswordArray();
+        	Crossword crossword = crosswordPuzzleView.getMyController().getCrossword();
 
-        	SVGMakery svgMakery = new SVGMakery(crossword);
+        	SVGRenderer svgRenderer = new SVGRenderer(crossword, optimized);
 
-        	svgMakery.writeToFile(file);
+        	svgRenderer.writeToFile(file);
         }
     }
 
+    /**
+     * Save the crossword as PDF file, that is split into A4 pages.
+     * @throws IOException
+     */
     @FXML
-    private void handlePrintCrossword()
+    private void handleSaveAsPDF() throws IOException
     {
-    	String[][] crosswordArray = crosswordPuzzleView.getMyController().getCrosswordArray();
+        FileChooser fileChooser = new FileChooser();
+
+        // Set extension filter
+        FileChooser.ExtensionFilter extFilter = new FileChooser.ExtensionFilter(
+                "PDF files (*.pdf)", "*.pdf");
+        fileChooser.getExtensionFilters().add(extFilter);
+
+        // Show save file dialog
+        File file = fileChooser.showSaveDialog(crosswordPuzzleView.getCrosswordStage());
+
+        if (file != null)
+        {
+            // Make sure it has the correct extension
+            if (!file.getPath().endsWith(".pdf"))
+            {
+                file = new File(file.getPath() + ".pdf");
+            }
+
+        	Crossword crossword = crosswordPuzzleView.getMyController().getCrossword();
+
+        	new PDFRenderer(crossword).writeToFile(file);
+        }
+    }
+
+    /**
+     * Save the crossword as PNG image and the solution as a second PNG image
+     * next to it, e.g. for a web page.
+     * @throws IOException
+     */
+    @FXML
+    private void handleSaveAsPNG() throws IOException
+    {
+        FileChooser fileChooser = new FileChooser();
+
+        // Set extension filter
+        FileChooser.ExtensionFilter extFilter = new FileChooser.ExtensionFilter(
+                "PNG files (*.png)", "*.png");
+        fileChooser.getExtensionFilters().add(extFilter);
 
-    	int height = crosswordArray.length;
-    	int width = crosswordArray[0].length;
+        // Show save file dialog
+        File file = fileChooser.showSaveDialog(crosswordPuzzleView.getCrosswordStage());
 
-		for (int i=0; i<height; i+=13)
-		{
-			for (int j=0; j<width; j+=9)
-			{
-				String[][] subarray = get9x13Subarray(crosswordArray,i,j);
+        if (file != null)
+        {
+            // Make sure it has the correct extension
+            if (!file.getPath().endsWith(".png"))
+            {
+                file = new File(file.getPath() + ".png");
+            }
 
-				CrosswordGridMakery cgm = new CrosswordGridMakery(subarray);
-				GridPane gridPane = cgm.getCrosswordGrid();
+            String path = file.getPath();
+            File solutionFile = new File(path.substring(0, path.length() - 4) + "-solution.png");
 
-				 PrinterJob job = PrinterJob.createPrinterJob();
+        	Crossword crossword = crosswordPuzzleView.getMyController().getCrossword();
 
-				 if (job != null) {
-				    boolean success = job.printPage(gridPane);
-				    if (success) {
-				        job.endJob();
-				    }
-				 }
+        	new PNGRenderer(crossword).writeToFiles(file, solutionFile);
+        }
+    }
 
-			}
-		}
+    /**
+     * Print all the pages of the crossword in one print job.
+     */
+    @FXML
+    private void handlePrintCrossword()
+    {
+    	createPrinter().print(crosswordPuzzleView.getCrosswordStage());
+    }
+
+    /**
+     * Show the pages of the crossword, before they are printed.
+     */
+    @FXML
+    private void handlePrintPreview()
+    {
+    	createPrinter().showPreview(crosswordPuzzleView.getCrosswordStage());
+    }
+
+    private CrosswordPrinter createPrinter()
+    {
+    	Crossword crossword = crosswordPuzzleView.getMyController().getCrossword();
+
+    	return new CrosswordPrinter(new CrosswordCanvasRenderer(crossword));
     }
 
     @FXML
@@ -114,40 +193,6 @@ public class CrosswordPuzzleMenuBarController
 
     }
 
-    // In order to print the crossword Array on A4 pages, it has to be split up
-    // into 9x13 subarrays.
-	private static String[][] get9x13Subarray(String[][] array, int startX, int startY)
-	{
-		int height = array.length;
-		int width = array[0].length;
-
-		int stopX = startX + 13;
-		int stopY = startY + 9;
-
-		if (stopX > height)
-		{
-			stopX = height;
-		}
-
-		if (stopY > width)
-		{
-			stopY = width;
-		}
-
-		String[][] subarray = new String[stopX-startX][stopY-startY];
-
-		for (int i=0; i<stopX-startX; i++)
-		{
-			for (int j=0;j<stopY-startY;j++)
-			{
-				subarray[i][j] = array[startX+i][startY+j];
-			}
-		}
-
-		return subarray;
-	}
-
-
     public void setCrosswordPuzzleView(CrosswordPuzzleView cpv)
     {
     	this.crosswordPuzzleView = cpv;
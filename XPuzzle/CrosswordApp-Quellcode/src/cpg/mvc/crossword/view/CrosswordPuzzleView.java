@@ -5,14 +5,13 @@ import java.io.IOException;
 import cpg.mvc.crossword.MainApp;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
-import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.BorderPane;
-import javafx.scene.layout.GridPane;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 /**
- * Shows the crossword puzzle as GridPane in a new window.
+ * Shows the crossword puzzle in a new window. The puzzle is shown in a
+ * CrosswordViewport, that only draws the visible tiles of large puzzles.
  *
  *@see CrossworPuzzleController
  */
@@ -20,7 +19,7 @@ public class CrosswordPuzzleView
 {
 	private Stage crosswordStage;
 
-	private GridPane crosswordGrid;
+	private CrosswordViewport crosswordViewport;
 
 	private BorderPane crosswordPuzzleMenuBar;
 	private CrosswordPuzzleMenuBarController crosswordPuzzleMenuBarController;
@@ -42,16 +41,6 @@ public class CrosswordPuzzleView
 	 */
 	public void show()
 	{
-		GridPane mainGrid = new GridPane();
-		mainGrid.setHgap(10);
-		mainGrid.setVgap(10);
-
-		mainGrid.add(this.crosswordGrid, 0, 1);
-
-		ScrollPane scrollPane = new ScrollPane();
-		scrollPane.setContent(mainGrid);
-
-
         // Create the crossword stage:
         crosswordStage = new Stage();
         crosswordStage.setTitle("Crossword Puzzle");
@@ -83,7 +72,8 @@ public class CrosswordPuzzleView
         crosswordStage.setScene(scene);
         crosswordStage.show();
 
-        crosswordPuzzleMenuBar.setCenter(scrollPane);
+        crosswordPuzzleMenuBar.setCenter(crosswordViewport);
+        crosswordViewport.requestFocus();
 	}
 
 
@@ -94,14 +84,14 @@ public class CrosswordPuzzleView
 	 * The Getters and Setters
 	 * *************************/
 
-	public GridPane getCrosswordGrid()
+	public CrosswordViewport getCrosswordViewport()
 	{
-		return this.crosswordGrid;
+		return this.crosswordViewport;
 	}
 
-	public void setCrosswordGrid(GridPane crosswordGrid)
+	public void setCrosswordViewport(CrosswordViewport crosswordViewport)
 	{
-		this.crosswordGrid = crosswordGrid;
+		this.crosswordViewport = crosswordViewport;
 	}
 
 	public void setMyController(CrosswordPuzzleController controller)
@@ -0,0 +1,388 @@
+package cpg.mvc.crossword.view;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import cpg.mvc.crossword.CrosswordChangeSet;
+import javafx.geometry.Orientation;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+
+/**
+ * A scrollable and zoomable view of a crossword puzzle, that also shows
+ * very large puzzles without drawing all the squares.<br>
+ * <br>
+ * The puzzle is split into tiles of 8x8 squares. Only the tiles that are
+ * visible are drawn onto a Canvas of the size of the view. A tile is drawn
+ * by the CrosswordCanvasRenderer into an image, that is kept in a cache of
+ * the recently used tiles, so scrolling mostly only copies images. The tiles
+ * around the visible ones are drawn in advance. The cache grows with the
+ * number of tiles that fit into the view at the current zoom level.<br>
+ * <br>
+ * The puzzle is zoomed with Ctrl and the mouse wheel or with the keys + and -.
+ * Every zoom level has its own tiles. At low zoom levels the clue texts can't
+ * be read, so they are not drawn.<br>
+ * <br>
+ * After a fill up only the tiles with changed fields are drawn again.<br>
+ *
+ * @see CrosswordCanvasRenderer
+ */
+public class CrosswordViewport extends Region
+{
+	private static final int TILE_SQUARES = 8;
+
+	// The number of tile images that are kept at least, the least recently used are removed first
+	private static final int MIN_TILE_CACHE_SIZE = 48;
+
+	private static final double[] ZOOM_LEVELS = {0.25, 0.5, 0.75, 1.0, 1.5, 2.0};
+	private static final int DEFAULT_ZOOM_LEVEL = 3;
+
+	// The clues are only drawn from this zoom on
+	private static final double CLUE_ZOOM = 0.5;
+
+	private static final double PREF_SIZE = 800;
+
+	// The row and column of a tile key without the zoom level
+	private static final long TILE_POSITION_MASK = (1L << 48) - 1;
+
+	private CrosswordCanvasRenderer renderer;
+
+	private final Canvas canvas = new Canvas();
+	private final ScrollBar horizontalBar = new ScrollBar();
+	private final ScrollBar verticalBar = new ScrollBar();
+
+	private int zoomLevel = DEFAULT_ZOOM_LEVEL;
+
+	// The visible tiles and the margin around them must fit into the cache
+	private int tileCacheSize = MIN_TILE_CACHE_SIZE;
+
+	private final Map<Long, Image> tiles = new LinkedHashMap<Long, Image>(64, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Image> eldest)
+		{
+			return size() > tileCacheSize;
+		}
+	};
+
+
+	/**
+	 * The constructor.
+	 * @param renderer that draws the puzzle
+	 */
+	public CrosswordViewport(CrosswordCanvasRenderer renderer)
+	{
+		this.renderer = renderer;
+
+		verticalBar.setOrientation(Orientation.VERTICAL);
+		getChildren().addAll(canvas, horizontalBar, verticalBar);
+
+		horizontalBar.valueProperty().addListener((observable, oldValue, newValue) -> repaint());
+		verticalBar.valueProperty().addListener((observable, oldValue, newValue) -> repaint());
+
+		setOnScroll(this::handleScroll);
+		setOnKeyPressed(this::handleKey);
+		setOnMouseClicked(event -> requestFocus());
+		setFocusTraversable(true);
+	}
+
+
+	/**
+	 * Show the puzzle after it was changed, e.g. by a fill up. Only the
+	 * tiles with changed fields are drawn again, the other tiles are kept.
+	 * @param renderer of the changed puzzle
+	 * @param changes or null to draw all the tiles again
+	 */
+	public void update(CrosswordCanvasRenderer renderer, CrosswordChangeSet changes)
+	{
+		boolean resized = renderer.getRows() != this.renderer.getRows()
+				|| renderer.getColumns() != this.renderer.getColumns();
+		this.renderer = renderer;
+
+		if (resized || changes == null)
+		{
+			tiles.clear();
+			requestLayout();
+		}
+		else
+		{
+			// The arrows of a clue field reach into the neighbour fields
+			Set<Long> changedTiles = new HashSet<>();
+			for (int k=0; k<changes.size(); k++)
+			{
+				for (int i=changes.getRow(k)-1; i<=changes.getRow(k)+1; i++)
+				{
+					for (int j=changes.getColumn(k)-1; j<=changes.getColumn(k)+1; j++)
+					{
+						if (i >= 0 && j >= 0)
+						{
+							changedTiles.add(tileKey(0, i / TILE_SQUARES, j / TILE_SQUARES));
+						}
+					}
+				}
+			}
+
+			// Remove the changed tiles of all the zoom levels
+			Iterator<Long> keys = tiles.keySet().iterator();
+			while (keys.hasNext())
+			{
+				long key = keys.next();
+				if (changedTiles.contains(key & TILE_POSITION_MASK))
+				{
+					keys.remove();
+				}
+			}
+		}
+
+		repaint();
+	}
+
+	/**
+	 * Zoom in or out by a number of zoom levels, the center of the view stays in place.
+	 * @param steps
+	 */
+	public void zoom(int steps)
+	{
+		int newZoomLevel = Math.max(0, Math.min(zoomLevel + steps, ZOOM_LEVELS.length - 1));
+		if (newZoomLevel == zoomLevel)
+		{
+			return;
+		}
+
+		// The center of the view in the coordinates of the puzzle
+		double centerX = (horizontalBar.getValue() + canvas.getWidth() / 2) / getZoom();
+		double centerY = (verticalBar.getValue() + canvas.getHeight() / 2) / getZoom();
+
+		zoomLevel = newZoomLevel;
+		updateTileCacheSize();
+		updateScrollBars();
+
+		horizontalBar.setValue(clamp(centerX * getZoom() - canvas.getWidth() / 2, horizontalBar));
+		verticalBar.setValue(clamp(centerY * getZoom() - canvas.getHeight() / 2, verticalBar));
+		repaint();
+	}
+
+	public double getZoom()
+	{
+		return ZOOM_LEVELS[zoomLevel];
+	}
+
+	@Override
+	protected double computePrefWidth(double height)
+	{
+		return Math.min(contentWidth() + verticalBar.prefWidth(-1), PREF_SIZE);
+	}
+
+	@Override
+	protected double computePrefHeight(double width)
+	{
+		return Math.min(contentHeight() + horizontalBar.prefHeight(-1), PREF_SIZE);
+	}
+
+	@Override
+	protected void layoutChildren()
+	{
+		double barWidth = verticalBar.prefWidth(-1);
+		double barHeight = horizontalBar.prefHeight(-1);
+
+		double width = Math.max(getWidth() - barWidth, 0);
+		double height = Math.max(getHeight() - barHeight, 0);
+
+		canvas.setWidth(width);
+		canvas.setHeight(height);
+
+		horizontalBar.resizeRelocate(0, height, width, barHeight);
+		verticalBar.resizeRelocate(width, 0, barWidth, height);
+
+		updateTileCacheSize();
+		updateScrollBars();
+		repaint();
+	}
+
+	private void updateScrollBars()
+	{
+		updateScrollBar(horizontalBar, contentWidth(), canvas.getWidth());
+		updateScrollBar(verticalBar, contentHeight(), canvas.getHeight());
+	}
+
+	private void updateScrollBar(ScrollBar bar, double content, double visible)
+	{
+		bar.setMin(0);
+		bar.setMax(Math.max(content - visible, 0));
+		bar.setVisibleAmount(visible);
+		bar.setUnitIncrement(CrosswordCanvasRenderer.SQUARE_WIDTH * getZoom());
+		bar.setBlockIncrement(visible);
+		bar.setValue(clamp(bar.getValue(), bar));
+	}
+
+	private static double clamp(double value, ScrollBar bar)
+	{
+		return Math.max(bar.getMin(), Math.min(value, bar.getMax()));
+	}
+
+	private double contentWidth()
+	{
+		return (renderer.getColumns() * CrosswordCanvasRenderer.SQUARE_WIDTH + 1) * getZoom();
+	}
+
+	private double contentHeight()
+	{
+		return (renderer.getRows() * CrosswordCanvasRenderer.SQUARE_HEIGHT + 1) * getZoom();
+	}
+
+	private double tileSize()
+	{
+		return TILE_SQUARES * CrosswordCanvasRenderer.SQUARE_WIDTH * getZoom();
+	}
+
+	/**
+	 * Make the cache large enough for the tiles that are visible at the
+	 * current zoom level and the margin around them, so a repaint never
+	 * removes the tiles that it needs. At low zoom levels many small tiles
+	 * are visible.
+	 */
+	private void updateTileCacheSize()
+	{
+		// One more tile, if the view starts in the middle of a tile, and the margin on both sides
+		int columns = (int) Math.ceil(canvas.getWidth() / tileSize()) + 3;
+		int rows = (int) Math.ceil(canvas.getHeight() / tileSize()) + 3;
+		tileCacheSize = Math.max(rows * columns, MIN_TILE_CACHE_SIZE);
+
+		// Remove the least recently used tiles, if the cache got smaller
+		Iterator<Long> keys = tiles.keySet().iterator();
+		while (tiles.size() > tileCacheSize && keys.hasNext())
+		{
+			keys.next();
+			keys.remove();
+		}
+	}
+
+	/**
+	 * Draw the visible tiles onto the canvas and the tiles around them into the cache.
+	 */
+	private void repaint()
+	{
+		GraphicsContext gc = canvas.getGraphicsContext2D();
+		gc.setFill(Color.WHITE);
+		gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+		double offsetX = horizontalBar.getValue();
+		double offsetY = verticalBar.getValue();
+		double tileSize = tileSize();
+
+		int tileRows = (renderer.getRows() + TILE_SQUARES - 1) / TILE_SQUARES;
+		int tileColumns = (renderer.getColumns() + TILE_SQUARES - 1) / TILE_SQUARES;
+
+		int firstRow = (int) (offsetY / tileSize);
+		int firstColumn = (int) (offsetX / tileSize);
+		int lastRow = Math.min((int) ((offsetY + canvas.getHeight()) / tileSize), tileRows - 1);
+		int lastColumn = Math.min((int) ((offsetX + canvas.getWidth()) / tileSize), tileColumns - 1);
+
+		for (int row=firstRow; row<=lastRow; row++)
+		{
+			for (int column=firstColumn; column<=lastColumn; column++)
+			{
+				gc.drawImage(getTile(row, column), column * tileSize - offsetX, row * tileSize - offsetY);
+			}
+		}
+
+		// The margin around the visible tiles
+		for (int row=firstRow-1; row<=lastRow+1; row++)
+		{
+			for (int column=firstColumn-1; column<=lastColumn+1; column++)
+			{
+				boolean margin = row < firstRow || row > lastRow || column < firstColumn || column > lastColumn;
+				if (margin && row >= 0 && row < tileRows && column >= 0 && column < tileColumns)
+				{
+					getTile(row, column);
+				}
+			}
+		}
+	}
+
+	private Image getTile(int row, int column)
+	{
+		long key = tileKey(zoomLevel, row, column);
+
+		Image tile = tiles.get(key);
+		if (tile == null)
+		{
+			tile = renderTile(row, column);
+			tiles.put(key, tile);
+		}
+		return tile;
+	}
+
+	private static long tileKey(int zoomLevel, int row, int column)
+	{
+		return ((long) zoomLevel << 48) | ((long) row << 24) | column;
+	}
+
+	/**
+	 * Draw a tile at the current zoom level into an image.
+	 * @param row of the tile
+	 * @param column of the tile
+	 * @return
+	 */
+	private Image renderTile(int row, int column)
+	{
+		double zoom = getZoom();
+		double tileSize = tileSize();
+
+		// One pixel more for the last line of the grid
+		Canvas tileCanvas = new Canvas(Math.ceil(tileSize) + 1, Math.ceil(tileSize) + 1);
+		GraphicsContext gc = tileCanvas.getGraphicsContext2D();
+
+		gc.scale(zoom, zoom);
+		gc.translate(-column * TILE_SQUARES * CrosswordCanvasRenderer.SQUARE_WIDTH,
+				-row * TILE_SQUARES * CrosswordCanvasRenderer.SQUARE_HEIGHT);
+
+		renderer.draw(gc, row * TILE_SQUARES, column * TILE_SQUARES,
+				(row + 1) * TILE_SQUARES, (column + 1) * TILE_SQUARES, zoom >= CLUE_ZOOM);
+
+		SnapshotParameters parameters = new SnapshotParameters();
+		parameters.setFill(Color.TRANSPARENT);
+		return tileCanvas.snapshot(parameters, null);
+	}
+
+	private void handleScroll(ScrollEvent event)
+	{
+		if (event.isControlDown())
+		{
+			zoom(event.getDeltaY() > 0 ? 1 : -1);
+		}
+		else
+		{
+			horizontalBar.setValue(clamp(horizontalBar.getValue() - event.getDeltaX(), horizontalBar));
+			verticalBar.setValue(clamp(verticalBar.getValue() - event.getDeltaY(), verticalBar));
+		}
+		event.consume();
+	}
+
+	private void handleKey(KeyEvent event)
+	{
+		if (event.getCode() == KeyCode.PLUS || event.getCode() == KeyCode.ADD || event.getCode() == KeyCode.EQUALS)
+		{
+			zoom(1);
+			event.consume();
+		}
+		else if (event.getCode() == KeyCode.MINUS || event.getCode() == KeyCode.SUBTRACT)
+		{
+			zoom(-1);
+			event.consume();
+		}
+	}
+}
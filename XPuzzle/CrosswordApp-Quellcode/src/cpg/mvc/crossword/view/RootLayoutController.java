@@ -2,11 +2,20 @@ package cpg.mvc.crossword.view;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import cpg.mvc.crossword.MainApp;
+import cpg.util.BinaryDictionary;
+import cpg.util.WordImporters;
+import cpg.util.WordListFileWatcher;
+import cpg.util.WordListWriter;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.FileChooser;
 import javafx.stage.Modality;
@@ -22,6 +31,13 @@ public class RootLayoutController
     // Reference to the main application
     private MainApp mainApp;
 
+    // The word list file that was opened last and the watcher for it
+    private File currentFile;
+    private WordListFileWatcher fileWatcher;
+
+    @FXML
+    private CheckMenuItem watchFileMenuItem;
+
     /**
      * Is called by the main application to give a reference back to itself.
      *
@@ -40,6 +56,8 @@ public class RootLayoutController
     {
     	mainApp.getWordListController().clearWordList();
     	mainApp.setPreferedFilePath(null);
+
+    	setCurrentFile(null);
     }
 
     /**
@@ -51,18 +69,15 @@ public class RootLayoutController
     {
         FileChooser fileChooser = new FileChooser();
 
-        // Set extension filter
-        FileChooser.ExtensionFilter extFilter = new FileChooser.ExtensionFilter(
-                "TXT files (*.txt)", "*.txt");
-        fileChooser.getExtensionFilters().add(extFilter);
+        // Set extension filters
+        addOpenExtensionFilters(fileChooser);
 
         // Show open file dialog and receive the file to open
         File file = fileChooser.showOpenDialog(mainApp.getPrimaryStage());
 
-        if (file != null)
+        if (file != null && mainApp.getWordListController().loadWordListFromFile(file, true))
         {
-        	mainApp.getWordListController().getWordList().clearList();
-        	mainApp.getWordListController().loadWordListFromFile(file);
+        	setCurrentFile(file);
         }
     }
 
@@ -75,20 +90,42 @@ public class RootLayoutController
     {
         FileChooser fileChooser = new FileChooser();
 
-        // Set extension filter
-        FileChooser.ExtensionFilter extFilter = new FileChooser.ExtensionFilter(
-                "TXT files (*.txt)", "*.txt");
-        fileChooser.getExtensionFilters().add(extFilter);
+        // Set extension filters
+        addOpenExtensionFilters(fileChooser);
 
         // Show open file dialog and receive the file to open
         File file = fileChooser.showOpenDialog(mainApp.getPrimaryStage());
 
         if (file != null)
         {
-        	mainApp.getWordListController().loadWordListFromFile(file);
+        	mainApp.getWordListController().loadWordListFromFile(file, false);
         }
     }
 
+    /**
+     * Adds the extension filters for all the formats that can be loaded.
+     * @param fileChooser
+     */
+    private void addOpenExtensionFilters(FileChooser fileChooser)
+    {
+        List<String> allExtensions = new ArrayList<>();
+        for (String extension : WordImporters.FILE_EXTENSIONS)
+        {
+            allExtensions.add(extension);
+            allExtensions.add(extension + WordListWriter.GZIP_EXTENSION);
+        }
+        allExtensions.add("*" + BinaryDictionary.FILE_EXTENSION);
+
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("All word lists", allExtensions),
+                new FileChooser.ExtensionFilter("TXT files (*.txt)", "*.txt", "*.txt" + WordListWriter.GZIP_EXTENSION),
+                new FileChooser.ExtensionFilter("CSV files (*.csv)", "*.csv", "*.csv" + WordListWriter.GZIP_EXTENSION),
+                new FileChooser.ExtensionFilter("TSV files (*.tsv)", "*.tsv", "*.tab", "*.tsv" + WordListWriter.GZIP_EXTENSION),
+                new FileChooser.ExtensionFilter("JSON Lines files (*.jsonl)", "*.jsonl", "*.ndjson", "*.jsonl" + WordListWriter.GZIP_EXTENSION),
+                new FileChooser.ExtensionFilter("XPuzzle dictionaries (*.xpd)", "*" + BinaryDictionary.FILE_EXTENSION),
+                new FileChooser.ExtensionFilter("All files", "*.*"));
+    }
+
     /**
      * Saves the file to the person file that is currently open. If there is no
      * open file, the "save as" dialog is shown.
@@ -99,7 +136,8 @@ public class RootLayoutController
         File file = mainApp.getPreferedFilePath();
         if (file != null)
         {
-            mainApp.getWordListController().saveWordListToFile(file);
+            saveWordList(file);
+            updateFileWatcher();
         }
         else
         {
@@ -115,10 +153,14 @@ public class RootLayoutController
     {
         FileChooser fileChooser = new FileChooser();
 
-        // Set extension filter
+        // Set extension filters
         FileChooser.ExtensionFilter extFilter = new FileChooser.ExtensionFilter(
                 "TXT files (*.txt)", "*.txt");
-        fileChooser.getExtensionFilters().add(extFilter);
+        FileChooser.ExtensionFilter gzipFilter = new FileChooser.ExtensionFilter(
+                "Compressed TXT files (*.txt.gz)", "*.txt" + WordListWriter.GZIP_EXTENSION);
+        FileChooser.ExtensionFilter binaryFilter = new FileChooser.ExtensionFilter(
+                "XPuzzle dictionaries (*.xpd)", "*" + BinaryDictionary.FILE_EXTENSION);
+        fileChooser.getExtensionFilters().addAll(extFilter, gzipFilter, binaryFilter);
 
         // Show save file dialog
         File file = fileChooser.showSaveDialog(mainApp.getPrimaryStage());
@@ -126,11 +168,96 @@ public class RootLayoutController
         if (file != null)
         {
             // Make sure it has the correct extension
-            if (!file.getPath().endsWith(".txt"))
+            String extension = ".txt";
+            if (fileChooser.getSelectedExtensionFilter() == gzipFilter)
+            {
+                extension = ".txt" + WordListWriter.GZIP_EXTENSION;
+            }
+            else if (fileChooser.getSelectedExtensionFilter() == binaryFilter)
+            {
+                extension = BinaryDictionary.FILE_EXTENSION;
+            }
+
+            if (!file.getPath().endsWith(extension))
+            {
+                file = new File(file.getPath() + extension);
+            }
+            saveWordList(file);
+
+            setCurrentFile(file);
+        }
+    }
+
+    /**
+     * Save the word list to a file. The file watcher is stopped while the file
+     * is written, so the own changes are not applied to the word list again.
+     * It has to be started afterwards, with the saved file as loaded version.
+     * @param file
+     */
+    private void saveWordList(File file)
+    {
+        if (fileWatcher != null)
+        {
+            fileWatcher.stop();
+            fileWatcher = null;
+        }
+
+        mainApp.getWordListController().saveWordListToFile(file);
+    }
+
+    /**
+     * Switches watching the current word list file for changes on or off.
+     * While the file is watched, changes in the file are applied to the word list.
+     */
+    @FXML
+    private void handleWatchFile()
+    {
+        if (watchFileMenuItem.isSelected() && currentFile == null)
+        {
+            Alert alert = new Alert(AlertType.WARNING);
+            alert.initOwner(mainApp.getPrimaryStage());
+            alert.setTitle("No File");
+            alert.setHeaderText("No Word List File Opened");
+            alert.setContentText("Please open a word list file first.");
+            alert.showAndWait();
+
+            watchFileMenuItem.setSelected(false);
+            return;
+        }
+
+        updateFileWatcher();
+    }
+
+    private void setCurrentFile(File file)
+    {
+        this.currentFile = file;
+        updateFileWatcher();
+    }
+
+    /**
+     * Watch the current file, if watching is switched on.
+     */
+    private void updateFileWatcher()
+    {
+        if (fileWatcher != null)
+        {
+            fileWatcher.stop();
+            fileWatcher = null;
+        }
+
+        if (watchFileMenuItem.isSelected() && currentFile != null)
+        {
+            fileWatcher = new WordListFileWatcher(currentFile, mainApp.getWordListController().getWordList());
+            try
+            {
+                fileWatcher.start();
+            }
+            catch (IOException e)
             {
-                file = new File(file.getPath() + ".txt");
+                e.printStackTrace();
+                fileWatcher = null;
+                watchFileMenuItem.setSelected(false);
             }
-            mainApp.getWordListController().saveWordListToFile(file);
         }
     }
 
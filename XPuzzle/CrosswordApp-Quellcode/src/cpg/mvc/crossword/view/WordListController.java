@@ -3,13 +3,18 @@ package cpg.mvc.crossword.view;
 
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.StringProperty;
+import javafx.animation.PauseTransition;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.transformation.FilteredList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
@@ -18,16 +23,24 @@ import javafx.scene.control.cell.TextFieldTableCell;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.util.Pair;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 import cpg.mvc.crossword.MainApp;
+import cpg.mvc.crossword.model.KeywordPatternIndex;
 import cpg.mvc.crossword.model.Word;
 import cpg.mvc.crossword.model.WordList;
+import cpg.mvc.crossword.model.WordListSnapshot;
+import cpg.util.FileHandler;
 
 
 /**
@@ -94,6 +107,25 @@ public class WordListController
 	@FXML
 	private TextField filterField;
 
+	@FXML
+	private ProgressBar loadProgressBar;
+
+
+	// The task that loads a file in the background
+	private Task<Map<String, List<String>>> loadTask;
+
+
+	// The time to wait after a key stroke in the filter field, before the list is filtered
+	private static final Duration FILTER_DELAY = Duration.millis(250);
+
+	private final PauseTransition filterDelay = new PauseTransition(FILTER_DELAY);
+
+	// The words of the wordList that are shown in the table
+	private FilteredList<Word> filteredData;
+
+	// The task that looks for the keywords that match the filter
+	private Task<Set<String>> filterTask;
+
 
 
 	/* -------------------------------------------------------------------
@@ -132,27 +164,18 @@ public class WordListController
 		 */
 
         // Wrap the ObservableList in a FilteredList (initially display all data).
-        FilteredList<Word> filteredData = new FilteredList<>(wordList.getWordData(), p -> true);
-
-        // Set the filter Predicate whenever the filter changes.
-        filterField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredData.setPredicate(Word -> {
-                // If filter text is empty, display all persons.
-                if (newValue == null || newValue.isEmpty())
-                {
-                    return true;
-                }
-
-                // Compare keyword of every Word with filter text.
-
-                String lowerCaseFilter = newValue.toLowerCase();
-
-                if (Word.getKeyword().toLowerCase().contains(lowerCaseFilter))
-                {
-                    return true; // Filter matches keyword.
-                }
-                return false; // Does not match.
-            });
+        filteredData = new FilteredList<>(wordList.getWordData(), p -> true);
+
+        // Filter the list, when the filter text was not changed for a moment.
+        filterDelay.setOnFinished(event -> updateFilter());
+        filterField.textProperty().addListener((observable, oldValue, newValue) -> filterDelay.playFromStart());
+
+        // Words that are added while a filter is set have to be filtered again.
+        wordList.getWordData().addListener((ListChangeListener<Word>) change -> {
+            if (filterField.getText() != null && ! filterField.getText().isEmpty())
+            {
+                filterDelay.playFromStart();
+            }
         });
 
         // Add filtered data to the table.
@@ -179,6 +202,75 @@ public class WordListController
     /* -------------------------------------------------------------------------------
      * Methods that handle input events from the view:                              */
 
+    /**
+     * Filter the keyword table by the text of the filter field. The matching
+     * keywords are looked up in the trigram index of a snapshot of the
+     * wordList in a background task. If the text contains a "?", it is a
+     * pattern like "A??E?T" and the keywords are looked up in the pattern
+     * index. Then the predicate of the filtered list is set once, so the
+     * table is updated in one step.
+     */
+    private void updateFilter()
+    {
+    	if (filterTask != null)
+    	{
+    		filterTask.cancel();
+    		filterTask = null;
+    	}
+
+    	String filterText = filterField.getText();
+
+        // If filter text is empty, display all words.
+    	if (filterText == null || filterText.isEmpty())
+    	{
+    		filteredData.setPredicate(null);
+    		return;
+    	}
+
+    	WordListSnapshot snapshot = wordList.snapshot();
+
+    	Task<Set<String>> task = new Task<Set<String>>()
+    	{
+    		@Override
+    		protected Set<String> call() throws Exception
+    		{
+    			// A text with "?" is a pattern for whole keywords, otherwise a substring
+    			int[] matches;
+    			if (KeywordPatternIndex.isPattern(filterText))
+    			{
+    				matches = snapshot.getPatternIndex().find(filterText);
+    			}
+    			else
+    			{
+    				matches = snapshot.getTrigramIndex().find(filterText);
+    			}
+
+    			Set<String> keywords = new HashSet<>(matches.length * 4 / 3 + 1);
+    			for (int i : matches)
+    			{
+    				keywords.add(snapshot.getEntry(i).getKeyword());
+    			}
+    			return keywords;
+    		}
+    	};
+
+    	task.setOnSucceeded(event -> {
+    		// Only the result of the latest filter text is shown
+    		if (filterTask == task)
+    		{
+    			Set<String> keywords = task.getValue();
+    			filteredData.setPredicate(word -> keywords.contains(word.getKeyword()));
+    		}
+    	});
+    	task.setOnFailed(event -> task.getException().printStackTrace());
+
+    	filterTask = task;
+
+    	Thread thread = new Thread(task, "WordListFilter");
+    	thread.setDaemon(true);
+    	thread.start();
+    }
+
     /**
      * Shows the clues list of a specific keyword when it is selected in the keyword
      * table. There is a change listener on the keyword list for that cause.
@@ -205,8 +297,10 @@ public class WordListController
     	else
     	{
     		// Make sure there is no content in an empty clue list.
+    		// The items are replaced and not cleared, because they are
+    		// the clues of the Word that was shown before.
     		keywordLabel.setText("");
-    		clueListTable.getItems().clear();
+    		clueListTable.setItems(FXCollections.observableArrayList());
     	}
     }
 
@@ -250,12 +344,7 @@ public class WordListController
 
     	Word selectedWord = wordList.getWordData().get(index);
 
-    	List<String> clueList = new ArrayList<>();;
-
-		for (Pair<StringProperty, BooleanProperty> clue : selectedWord.getAll())
-		{
-			clueList.add(clue.getKey().get());
-		}
+    	List<String> clueList = new ArrayList<>(selectedWord.getClues());
 
 
     	// Load the fxml file and create a new stage for the popup dialog:
@@ -313,6 +402,11 @@ public class WordListController
         // Show the dialog and wait until the user closed id:
         dialogStage.showAndWait();
 
+        if (! controller.isOkClicked())
+        {
+        	return false;
+        }
+
         wordList.addWord(controller.getNewWord());
 
         return true;
@@ -320,10 +414,15 @@ public class WordListController
 
 
     /**
-     * Clear the whole wordList
+     * Clear the whole wordList. A file that is loaded is not added anymore.
      */
     public void clearWordList()
     {
+    	if (isLoadingFile())
+    	{
+    		loadTask.cancel();
+    	}
+
     	wordList.clearList();
     	// Make sure there is no more content in the clue list as well...
     	showClueList(null);
@@ -332,21 +431,104 @@ public class WordListController
 
 
     /**
-     * Load a wordList from a file.
+     * Is a file loaded in the background at the moment?
+     * @return
+     */
+    public boolean isLoadingFile()
+    {
+    	return loadTask != null && loadTask.isRunning();
+    }
+
+    /**
+     * Load a wordList from a file. The file is parsed in a background task,
+     * while the progress is shown in the view. Then the loaded words are
+     * added to the wordList in one step.<br>
+     * Only one file is loaded at a time: while a file is loaded, the user is
+     * told to wait and the new file is not loaded.
      * @param file
+     * @param replace the words in the wordList with the words of the file
+     * @return true, if the file is loaded
      */
-    public void loadWordListFromFile(File file)
+    public boolean loadWordListFromFile(File file, boolean replace)
     {
-    	try
+    	if (isLoadingFile())
     	{
-			wordList.loadFromFile(file);
-			initialize();
-		}
-    	catch (IOException e)
+            Alert alert = new Alert(AlertType.WARNING);
+            alert.initOwner(mainApp.getPrimaryStage());
+            alert.setTitle("Loading");
+            alert.setHeaderText("A File Is Loaded");
+            alert.setContentText("Please wait until the file is loaded, before another file is loaded.");
+            alert.showAndWait();
+    		return false;
+    	}
+
+    	if (replace)
     	{
-			e.printStackTrace();
-		}
+    		wordList.clearList();
+    	}
 
+    	Task<Map<String, List<String>>> task = new Task<Map<String, List<String>>>()
+    	{
+    		@Override
+    		protected Map<String, List<String>> call() throws Exception
+    		{
+    			FileHandler loader = new FileHandler();
+    			loader.setProgressListener(progress -> {
+    				// Stop parsing, if the loading was cancelled
+    				if (isCancelled())
+    				{
+    					throw new CancellationException();
+    				}
+    				updateProgress(progress, 1.0);
+    			});
+    			loader.loadFile(file);
+
+    			return loader.getLoadedData();
+    		}
+    	};
+
+    	task.setOnSucceeded(event -> {
+    		hideLoadProgress(task);
+    		wordList.addAll(task.getValue());
+    	});
+
+    	task.setOnFailed(event -> {
+    		hideLoadProgress(task);
+    		task.getException().printStackTrace();
+
+            Alert alert = new Alert(AlertType.ERROR);
+            alert.initOwner(mainApp.getPrimaryStage());
+            alert.setTitle("Error");
+            alert.setHeaderText("Could not load the file");
+            alert.setContentText(file.getPath());
+            alert.showAndWait();
+    	});
+
+    	task.setOnCancelled(event -> hideLoadProgress(task));
+
+    	loadProgressBar.progressProperty().bind(task.progressProperty());
+    	loadProgressBar.setVisible(true);
+
+    	loadTask = task;
+
+    	Thread thread = new Thread(task, "WordListLoader");
+    	thread.setDaemon(true);
+    	thread.start();
+    	return true;
+    }
+
+    /**
+     * Hide the progress of a task, if it is still the task that loads a file.
+     * @param task
+     */
+    private void hideLoadProgress(Task<?> task)
+    {
+    	if (loadTask != task)
+    	{
+    		return;
+    	}
+    	loadProgressBar.progressProperty().unbind();
+    	loadProgressBar.setVisible(false);
     }
 
     /**
@@ -355,7 +537,21 @@ public class WordListController
      */
     public void saveWordListToFile(File file)
     {
-    	wordList.saveToFile(file);
+    	try
+    	{
+    		wordList.saveToFile(file);
+    	}
+    	catch (IOException e)
+    	{
+    		e.printStackTrace();
+
+            Alert alert = new Alert(AlertType.ERROR);
+            alert.initOwner(mainApp.getPrimaryStage());
+            alert.setTitle("Error");
+            alert.setHeaderText("Could not save the file");
+            alert.setContentText(file.getPath() + "\n" + e.getMessage());
+            alert.showAndWait();
+    	}
     }
 
 
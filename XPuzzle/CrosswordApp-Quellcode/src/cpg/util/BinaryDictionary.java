@@ -0,0 +1,621 @@
+package cpg.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * This is a compact binary format for a word dictionary, that is a sorted
+ * map of normalized keywords to their clues. A binary dictionary is read by
+ * mapping the file into memory, so opening even a very large dictionary does
+ * not parse or copy anything. Keywords and clues are only decoded when they
+ * are accessed.<br>
+ * <br>
+ * The file has the following layout (all numbers big endian):<br>
+ * - The header: magic number "XPZD", version, restart interval, number of
+ *   keywords, clues and blocks, the offsets of the sections below and the
+ *   number of occurrences of every letter A-Z in the keywords.<br>
+ * - The keyword section: the keywords in sorted order, front coded. Every
+ *   entry consists of the length of the prefix shared with the previous keyword,
+ *   the remaining suffix and the number of clues of the keyword. Every
+ *   RESTART_INTERVAL entries the front coding restarts with a full keyword.<br>
+ * - The clue pool: the UTF-8 bytes of all clues, one after another.<br>
+ * - The clue offset table: for every clue the offset of its bytes in the clue
+ *   pool, plus one final offset for the end of the pool.<br>
+ * - The block index: for every restart block the offset of its first keyword
+ *   entry and the index of its first clue.<br>
+ * <br>
+ * The clues of a keyword are stored consecutively, so a keyword only needs the
+ * number of its clues. Since the whole file is mapped, it is limited to 2 GB.<br>
+ *
+ * @see DictionaryConverter
+ * @see FileHandler
+ */
+public class BinaryDictionary
+{
+	public static final String FILE_EXTENSION = ".xpd";
+
+	private static final int MAGIC = 0x58505A44;
+	private static final short VERSION = 1;
+	private static final int RESTART_INTERVAL = 16;
+
+	private static final int MAX_KEYWORD_LENGTH = 255;
+	private static final int MAX_CLUES_PER_KEYWORD = 0xFFFF;
+
+	// magic, version + interval, 3 counts, 4 section offsets, 26 letter counts
+	private static final int HEADER_SIZE = 4 + 4 + 3 * 4 + 4 * 4 + 26 * 4;
+
+	private final ByteBuffer buffer;
+
+	private final int keywordCount;
+	private final int clueCount;
+	private final int blockCount;
+
+	private final int keywordSectionOffset;
+	private final int cluePoolOffset;
+	private final int clueTableOffset;
+	private final int blockIndexOffset;
+
+	private final int[] letterCounts = new int[26];
+
+
+	/**
+	 * Constructor from a buffer that contains a whole binary dictionary.
+	 * @param buffer
+	 * @throws IOException if the buffer does not contain a binary dictionary
+	 */
+	public BinaryDictionary(ByteBuffer buffer) throws IOException
+	{
+		this.buffer = buffer.duplicate();
+
+		if (this.buffer.capacity() < HEADER_SIZE || this.buffer.getInt(0) != MAGIC)
+		{
+			throw new IOException("Not a binary dictionary");
+		}
+
+		if (this.buffer.getShort(4) != VERSION)
+		{
+			throw new IOException("Unsupported binary dictionary version: " + this.buffer.getShort(4));
+		}
+
+		this.keywordCount = this.buffer.getInt(8);
+		this.clueCount = this.buffer.getInt(12);
+		this.blockCount = this.buffer.getInt(16);
+
+		this.keywordSectionOffset = this.buffer.getInt(20);
+		this.cluePoolOffset = this.buffer.getInt(24);
+		this.clueTableOffset = this.buffer.getInt(28);
+		this.blockIndexOffset = this.buffer.getInt(32);
+
+		for (int i=0; i<26; i++)
+		{
+			this.letterCounts[i] = this.buffer.getInt(36 + 4*i);
+		}
+
+		checkHeader();
+	}
+
+	/**
+	 * Check that the counts and sections of the header fit into the buffer,
+	 * so a truncated or corrupt file is not read outside of its sections.
+	 * @throws IOException
+	 */
+	private void checkHeader() throws IOException
+	{
+		long capacity = buffer.capacity();
+
+		if (keywordCount < 0 || clueCount < 0
+				|| blockCount != (keywordCount + (long) RESTART_INTERVAL - 1) / RESTART_INTERVAL)
+		{
+			throw new IOException("Corrupt binary dictionary: invalid counts");
+		}
+
+		// The sections follow the header in this order
+		if (keywordSectionOffset < HEADER_SIZE
+				|| cluePoolOffset < keywordSectionOffset + 5L * keywordCount
+				|| clueTableOffset < cluePoolOffset
+				|| blockIndexOffset < clueTableOffset + 4L * (clueCount + 1L)
+				|| capacity < blockIndexOffset + 8L * blockCount)
+		{
+			throw new IOException("Corrupt binary dictionary: sections out of bounds");
+		}
+
+		// The end of the clue pool
+		if (buffer.getInt(clueTableOffset + 4 * clueCount) > clueTableOffset - cluePoolOffset)
+		{
+			throw new IOException("Corrupt binary dictionary: clue pool out of bounds");
+		}
+	}
+
+	/**
+	 * Open a binary dictionary by mapping the file into memory.
+	 * @param file
+	 * @return the binary dictionary
+	 * @throws IOException
+	 */
+	public static BinaryDictionary open(File file) throws IOException
+	{
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+			 FileChannel channel = raf.getChannel())
+		{
+			// The mapping stays valid after the channel is closed.
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new BinaryDictionary(mapped);
+		}
+	}
+
+	/**
+	 * Checks if a file starts with the magic number of a binary dictionary.
+	 * @param file
+	 * @return is binary dictionary?
+	 */
+	public static boolean isBinaryDictionary(File file)
+	{
+		if (file.length() < HEADER_SIZE)
+		{
+			return false;
+		}
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"))
+		{
+			return raf.readInt() == MAGIC;
+		}
+		catch (IOException e)
+		{
+			return false;
+		}
+	}
+
+
+
+	/* -------------------------------
+	 * Reading
+	 * ------------------------------- */
+
+	/**
+	 * Returns the keyword at a specific index. Only the restart block of the
+	 * keyword is decoded.
+	 * @param index
+	 * @return keyword
+	 */
+	public String getKeyword(int index)
+	{
+		checkIndex(index);
+
+		int block = index / RESTART_INTERVAL;
+		int position = getBlockOffset(block);
+
+		byte[] keyword = new byte[MAX_KEYWORD_LENGTH];
+		int length = 0;
+
+		for (int i = block * RESTART_INTERVAL; i <= index; i++)
+		{
+			int shared = buffer.get(position) & 0xFF;
+			int suffixLength = buffer.get(position + 1) & 0xFF;
+
+			for (int k=0; k<suffixLength; k++)
+			{
+				keyword[shared + k] = buffer.get(position + 2 + k);
+			}
+			length = shared + suffixLength;
+
+			position = position + 2 + suffixLength + 2;
+		}
+
+		return new String(keyword, 0, length, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Returns all the clues of the keyword at a specific index.
+	 * @param index
+	 * @return list of clues
+	 */
+	public List<String> getClues(int index)
+	{
+		checkIndex(index);
+
+		int block = index / RESTART_INTERVAL;
+		int position = getBlockOffset(block);
+		int clue = getBlockFirstClue(block);
+
+		for (int i = block * RESTART_INTERVAL; i < index; i++)
+		{
+			int suffixLength = buffer.get(position + 1) & 0xFF;
+			clue = clue + (buffer.getShort(position + 2 + suffixLength) & 0xFFFF);
+			position = position + 2 + suffixLength + 2;
+		}
+
+		int suffixLength = buffer.get(position + 1) & 0xFF;
+		int numberOfClues = buffer.getShort(position + 2 + suffixLength) & 0xFFFF;
+
+		return readClues(clue, numberOfClues);
+	}
+
+	/**
+	 * Search for a keyword by binary search over the restart blocks.
+	 * @param keyword
+	 * @return index of the keyword or -1 if it is not in the dictionary
+	 */
+	public int indexOf(String keyword)
+	{
+		// Find the last block whose first keyword is not greater than the keyword
+		int low = 0;
+		int high = blockCount - 1;
+		int block = -1;
+
+		while (low <= high)
+		{
+			int mid = (low + high) >>> 1;
+
+			if (getKeyword(mid * RESTART_INTERVAL).compareTo(keyword) <= 0)
+			{
+				block = mid;
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid - 1;
+			}
+		}
+
+		if (block < 0)
+		{
+			return -1;
+		}
+
+		int stop = Math.min(keywordCount, (block + 1) * RESTART_INTERVAL);
+		for (int i = block * RESTART_INTERVAL; i < stop; i++)
+		{
+			if (getKeyword(i).equals(keyword))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Decode all the keywords with their clues in sorted order.
+	 * This is the fastest way to read the whole dictionary.
+	 * @param consumer gets every keyword with its list of clues
+	 */
+	public void forEach(BiConsumer<String, List<String>> consumer)
+	{
+		byte[] keyword = new byte[MAX_KEYWORD_LENGTH];
+		int position = keywordSectionOffset;
+		int clue = 0;
+
+		for (int i=0; i<keywordCount; i++)
+		{
+			int shared = buffer.get(position) & 0xFF;
+			int suffixLength = buffer.get(position + 1) & 0xFF;
+
+			for (int k=0; k<suffixLength; k++)
+			{
+				keyword[shared + k] = buffer.get(position + 2 + k);
+			}
+			int numberOfClues = buffer.getShort(position + 2 + suffixLength) & 0xFFFF;
+
+			consumer.accept(new String(keyword, 0, shared + suffixLength, StandardCharsets.US_ASCII),
+							readClues(clue, numberOfClues));
+
+			clue = clue + numberOfClues;
+			position = position + 2 + suffixLength + 2;
+		}
+	}
+
+	private List<String> readClues(int firstClue, int numberOfClues)
+	{
+		List<String> clues = new ArrayList<>(numberOfClues);
+
+		for (int c = firstClue; c < firstClue + numberOfClues; c++)
+		{
+			int start = buffer.getInt(clueTableOffset + 4*c);
+			int end = buffer.getInt(clueTableOffset + 4*(c+1));
+
+			byte[] bytes = new byte[end - start];
+			ByteBuffer view = buffer.duplicate();
+			view.position(cluePoolOffset + start);
+			view.get(bytes);
+
+			clues.add(new String(bytes, StandardCharsets.UTF_8));
+		}
+		return clues;
+	}
+
+	private int getBlockOffset(int block)
+	{
+		return buffer.getInt(blockIndexOffset + 8*block);
+	}
+
+	private int getBlockFirstClue(int block)
+	{
+		return buffer.getInt(blockIndexOffset + 8*block + 4);
+	}
+
+	private void checkIndex(int index)
+	{
+		if (index < 0 || index >= keywordCount)
+		{
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + keywordCount);
+		}
+	}
+
+
+
+	/* -------------------------------
+	 * Writing
+	 * ------------------------------- */
+
+	/**
+	 * Write a dictionary as binary dictionary to a file. The keywords have to
+	 * be normalized, i.e. only consist of the letters A-Z, and the map has
+	 * to be sorted (e.g. a TreeMap).<br>
+	 * <br>
+	 * All the keywords are checked before anything is written. The file is
+	 * written into a temporary file, that replaces the target file when it
+	 * is complete, so an existing file stays as it is, if writing fails.
+	 *
+	 * @param dictionary sorted map of normalized keywords to their clues
+	 * @param file
+	 * @throws IOException if a keyword can not be stored or writing fails
+	 */
+	public static void write(Map<String, List<String>> dictionary, File file) throws IOException
+	{
+		String previous = "";
+		for (Map.Entry<String, List<String>> entry : dictionary.entrySet())
+		{
+			checkKeyword(entry.getKey(), previous, entry.getValue().size());
+			previous = entry.getKey();
+		}
+
+		Path temporaryFile = WordListWriter.createTemporaryFile(file);
+		try
+		{
+			writeFile(dictionary, temporaryFile.toFile());
+			WordListWriter.moveIntoPlace(temporaryFile, file);
+		}
+		finally
+		{
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	private static void writeFile(Map<String, List<String>> dictionary, File file) throws IOException
+	{
+		int keywordCount = dictionary.size();
+		int blockCount = (keywordCount + RESTART_INTERVAL - 1) / RESTART_INTERVAL;
+
+		int[] blockIndex = new int[2 * blockCount];
+		int[] letterCounts = new int[26];
+
+		int clueCount = 0;
+		for (List<String> clues : dictionary.values())
+		{
+			clueCount = clueCount + clues.size();
+		}
+		int[] clueTable = new int[clueCount + 1];
+
+		int keywordSectionOffset;
+		int cluePoolOffset;
+		int clueTableOffset;
+		int blockIndexOffset;
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file), 1 << 16)))
+		{
+			// The header is written at the end, when the offsets are known.
+			out.write(new byte[HEADER_SIZE]);
+
+
+			// The keyword section, front coded:
+			keywordSectionOffset = offset(out);
+
+			String previous = "";
+			int index = 0;
+			int clue = 0;
+			for (Map.Entry<String, List<String>> entry : dictionary.entrySet())
+			{
+				String keyword = entry.getKey();
+				int numberOfClues = entry.getValue().size();
+
+				int shared = 0;
+				if (index % RESTART_INTERVAL == 0)
+				{
+					blockIndex[2 * (index / RESTART_INTERVAL)] = offset(out);
+					blockIndex[2 * (index / RESTART_INTERVAL) + 1] = clue;
+				}
+				else
+				{
+					int max = Math.min(previous.length(), keyword.length());
+					while (shared < max && previous.charAt(shared) == keyword.charAt(shared))
+					{
+						shared++;
+					}
+				}
+
+				out.writeByte(shared);
+				out.writeByte(keyword.length() - shared);
+				for (int k = shared; k < keyword.length(); k++)
+				{
+					out.writeByte(keyword.charAt(k));
+				}
+				for (int k = 0; k < keyword.length(); k++)
+				{
+					letterCounts[keyword.charAt(k) - 'A']++;
+				}
+				out.writeShort(numberOfClues);
+
+				previous = keyword;
+				clue = clue + numberOfClues;
+				index++;
+			}
+
+
+			// The clue pool:
+			cluePoolOffset = offset(out);
+
+			int c = 0;
+			for (List<String> clues : dictionary.values())
+			{
+				for (String clueText : clues)
+				{
+					clueTable[c] = offset(out) - cluePoolOffset;
+					out.write(clueText.getBytes(StandardCharsets.UTF_8));
+					c++;
+				}
+			}
+			clueTable[c] = offset(out) - cluePoolOffset;
+
+
+			// The clue offset table and the block index:
+			clueTableOffset = offset(out);
+			for (int offset : clueTable)
+			{
+				out.writeInt(offset);
+			}
+
+			blockIndexOffset = offset(out);
+			for (int value : blockIndex)
+			{
+				out.writeInt(value);
+			}
+
+			// The whole file has to be mappable
+			offset(out);
+		}
+
+		// Finally go back and fill in the header
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putShort(VERSION);
+		header.putShort((short) RESTART_INTERVAL);
+		header.putInt(keywordCount);
+		header.putInt(clueCount);
+		header.putInt(blockCount);
+		header.putInt(keywordSectionOffset);
+		header.putInt(cluePoolOffset);
+		header.putInt(clueTableOffset);
+		header.putInt(blockIndexOffset);
+		for (int count : letterCounts)
+		{
+			header.putInt(count);
+		}
+		header.flip();
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			 FileChannel channel = raf.getChannel())
+		{
+			channel.write(header, 0);
+
+			// Make sure that the data is on the disk, before it replaces the old file
+			channel.force(true);
+		}
+	}
+
+	/**
+	 * Get the number of bytes written so far as offset in the file.
+	 * @param out
+	 * @return
+	 * @throws IOException if the file gets too large to be mapped
+	 */
+	private static int offset(DataOutputStream out) throws IOException
+	{
+		// The size stops at Integer.MAX_VALUE, when more was written
+		if (out.size() == Integer.MAX_VALUE)
+		{
+			throw new IOException("The binary dictionary is larger than 2 GB");
+		}
+		return out.size();
+	}
+
+	private static void checkKeyword(String keyword, String previous, int numberOfClues) throws IOException
+	{
+		if (keyword.isEmpty() || keyword.length() > MAX_KEYWORD_LENGTH)
+		{
+			throw new IOException("Invalid keyword length: " + keyword);
+		}
+
+		for (int k=0; k<keyword.length(); k++)
+		{
+			char c = keyword.charAt(k);
+			if (c < 'A' || c > 'Z')
+			{
+				throw new IOException("Keyword is not normalized: " + keyword);
+			}
+		}
+
+		if (keyword.compareTo(previous) <= 0)
+		{
+			throw new IOException("Keywords are not sorted: " + previous + ", " + keyword);
+		}
+
+		if (numberOfClues > MAX_CLUES_PER_KEYWORD)
+		{
+			throw new IOException("Too many clues for keyword: " + keyword);
+		}
+	}
+
+
+
+	/* -------------------------------
+	 * The Getters
+	 * ------------------------------- */
+
+	public int getKeywordCount()
+	{
+		return this.keywordCount;
+	}
+
+	public int getClueCount()
+	{
+		return this.clueCount;
+	}
+
+	/**
+	 * Returns how often a letter occurs in all the keywords.
+	 * @param letter A-Z
+	 * @return number of occurrences
+	 */
+	public int getLetterCount(char letter)
+	{
+		return this.letterCounts[letter - 'A'];
+	}
+
+	/**
+	 * Returns the letter frequencies of the keywords in percent, computed
+	 * from the precomputed letter statistics in the header.
+	 * @return frequencies of the letters A-Z
+	 */
+	public double[] getLetterFrequencies()
+	{
+		long total = 0;
+		for (int count : letterCounts)
+		{
+			total = total + count;
+		}
+
+		double[] frequencies = new double[26];
+		if (total > 0)
+		{
+			for (int i=0; i<26; i++)
+			{
+				frequencies[i] = 100.0 * letterCounts[i] / total;
+			}
+		}
+		return frequencies;
+	}
+}
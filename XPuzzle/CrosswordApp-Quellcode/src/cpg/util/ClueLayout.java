@@ -0,0 +1,431 @@
+package cpg.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The layout of a clue text inside a clue field: the text is wrapped at the
+ * spaces into lines, words that are longer than a line are hyphenated, and
+ * the largest font size is chosen, with which the lines fit into the field.
+ * If the text does not even fit with the smallest font size, the last line
+ * is cut with an ellipsis. The lines are centered in the field.<br>
+ * <br>
+ * The text is measured with the widths of the font Helvetica, that has the
+ * same widths as Arial, so the layout needs no toolkit and is the same for
+ * the canvas, the print, the SVG, the PDF and the PNG. The layouts are kept
+ * in a cache by the clue text, the size of the field and the font sizes,
+ * that is shared by all the renderers, because the same clues come up again
+ * and again, e.g. when a puzzle is filled up or exported several times.<br>
+ * <br>
+ * The layouts are immutable and the cache can be used by several threads.<br>
+ *
+ */
+public final class ClueLayout
+{
+	// The font of the clues, Helvetica in the PDF
+	public static final String FONT_FAMILY = "Arial";
+
+	// The clue fields of all the renderers, with a margin of one point
+	public static final double FIELD_SIZE = 50;
+	public static final double FIELD_MARGIN = 1;
+
+	public static final double MAX_FONT_SIZE = 10;
+	public static final double MIN_FONT_SIZE = 6;
+
+	private static final double FONT_SIZE_STEP = 0.5;
+
+	// The height of a line, the ascent and the descent as part of the font size
+	private static final double LINE_SPACING = 1.15;
+	private static final double ASCENT = 0.905;
+	private static final double DESCENT = 0.212;
+
+	private static final String ELLIPSIS = "...";
+	private static final char HYPHEN = '-';
+
+	// The words are hyphenated only into parts of at least this many letters
+	private static final int MIN_HYPHEN_PART = 2;
+
+	// The pairs of consonants that are not split by a hyphen
+	private static final Set<String> CLUSTERS = new HashSet<>(Arrays.asList(
+			"bl", "br", "ch", "ck", "dr", "fl", "fr", "gl", "gr", "kl", "kr",
+			"ph", "pl", "pr", "sc", "th", "tr"));
+
+	private static final int CACHE_SIZE = 4096;
+
+	// The widths of the characters from ' ' to '~' in 1/1000 of the font size
+	private static final int[] WIDTHS = {
+			278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,
+			556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,
+			1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,
+			667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,
+			333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,
+			556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584};
+
+	private static final int DEFAULT_WIDTH = 556;
+
+	// The layouts, the least recently used are removed first
+	private static final Map<Key, ClueLayout> CACHE = new LinkedHashMap<Key, ClueLayout>(256, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, ClueLayout> eldest)
+		{
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private final String[] lines;
+	private final double[] lineWidths;
+	private final double fontSize;
+	private final double lineHeight;
+	private final double width;
+	private final double top;
+
+
+	private ClueLayout(String[] lines, double fontSize, double width, double height)
+	{
+		this.lines = lines;
+		this.fontSize = fontSize;
+		this.lineHeight = fontSize * LINE_SPACING;
+		this.width = width;
+
+		lineWidths = new double[lines.length];
+		for (int k=0; k<lines.length; k++)
+		{
+			lineWidths[k] = textWidth(lines[k], fontSize);
+		}
+
+		top = (height - lines.length * lineHeight) / 2;
+	}
+
+
+	/**
+	 * Get the layout of a clue in a clue field of the renderers.
+	 * @param clue
+	 * @return
+	 */
+	public static ClueLayout get(String clue)
+	{
+		return get(clue, FIELD_SIZE - 2 * FIELD_MARGIN, FIELD_SIZE - 2 * FIELD_MARGIN, MAX_FONT_SIZE, MIN_FONT_SIZE);
+	}
+
+	/**
+	 * Get the layout of a clue in a box from the cache or make it.
+	 * @param clue
+	 * @param width of the box
+	 * @param height of the box
+	 * @param maxFontSize
+	 * @param minFontSize
+	 * @return
+	 */
+	public static ClueLayout get(String clue, double width, double height, double maxFontSize, double minFontSize)
+	{
+		Key key = new Key(clue, width, height, maxFontSize, minFontSize);
+
+		ClueLayout layout;
+		synchronized (CACHE)
+		{
+			layout = CACHE.get(key);
+		}
+
+		if (layout == null)
+		{
+			layout = make(clue, width, height, maxFontSize, minFontSize);
+			synchronized (CACHE)
+			{
+				CACHE.put(key, layout);
+			}
+		}
+		return layout;
+	}
+
+	private static ClueLayout make(String clue, double width, double height, double maxFontSize, double minFontSize)
+	{
+		String[] words = clue.trim().split("\\s+");
+
+		// The largest font size, with which all the lines fit, a smaller font is
+		// preferred to a hyphenated word
+		for (int pass=0; pass<2; pass++)
+		{
+			boolean hyphenate = pass == 1;
+			for (double size=maxFontSize; size>=minFontSize; size-=FONT_SIZE_STEP)
+			{
+				List<String> lines = wrap(words, width, size, hyphenate);
+				if (lines != null && lines.size() <= maxLines(height, size))
+				{
+					return new ClueLayout(lines.toArray(new String[0]), size, width, height);
+				}
+			}
+		}
+
+		// Cut the clue, if it has too many lines even with the smallest font size
+		List<String> lines = wrap(words, width, minFontSize, true);
+		int maxLines = maxLines(height, minFontSize);
+
+		// The smallest font size is not on the steps from the largest one
+		if (lines.size() <= maxLines)
+		{
+			return new ClueLayout(lines.toArray(new String[0]), minFontSize, width, height);
+		}
+
+		List<String> cut = new ArrayList<>(lines.subList(0, maxLines));
+		String last = cut.get(maxLines - 1);
+		while (! last.isEmpty() && textWidth(last + ELLIPSIS, minFontSize) > width)
+		{
+			last = last.substring(0, last.length() - 1);
+		}
+		cut.set(maxLines - 1, last.trim() + ELLIPSIS);
+
+		return new ClueLayout(cut.toArray(new String[0]), minFontSize, width, height);
+	}
+
+	private static int maxLines(double height, double fontSize)
+	{
+		return Math.max((int) (height / (fontSize * LINE_SPACING)), 1);
+	}
+
+	/**
+	 * Wrap the words into lines. A word that is longer than a line is
+	 * hyphenated, the rest of the word starts the next line.
+	 * @return the lines or null, if a word is too long and must not be hyphenated
+	 */
+	private static List<String> wrap(String[] words, double width, double fontSize, boolean hyphenate)
+	{
+		List<String> lines = new ArrayList<>();
+		StringBuilder line = new StringBuilder();
+
+		for (String word : words)
+		{
+			String candidate = line.length() == 0 ? word : line + " " + word;
+			if (textWidth(candidate, fontSize) <= width)
+			{
+				line.setLength(0);
+				line.append(candidate);
+				continue;
+			}
+
+			if (line.length() > 0)
+			{
+				lines.add(line.toString());
+				line.setLength(0);
+			}
+
+			if (! hyphenate && textWidth(word, fontSize) > width)
+			{
+				return null;
+			}
+
+			while (textWidth(word, fontSize) > width && word.length() > 1)
+			{
+				int end = hyphenate(word, width, fontSize);
+				lines.add(word.substring(0, end) + (end > 1 ? String.valueOf(HYPHEN) : ""));
+				word = word.substring(end);
+			}
+			line.append(word);
+		}
+
+		if (line.length() > 0)
+		{
+			lines.add(line.toString());
+		}
+		return lines;
+	}
+
+	/**
+	 * Find the end of the first part of a word, that fits into a line with a
+	 * hyphen. Like between syllables, a break before the consonants in front
+	 * of a vowel is preferred, e.g. "Blu-men" or "Donau-dampf", otherwise the
+	 * word is broken after the last letter that fits.
+	 * @return the number of letters of the first part
+	 */
+	private static int hyphenate(String word, double width, double fontSize)
+	{
+		int fits = 1;
+		while (fits < word.length() - 1
+				&& textWidth(word.substring(0, fits + 1) + HYPHEN, fontSize) <= width)
+		{
+			fits++;
+		}
+
+		for (int vowel=Math.min(fits + 1, word.length() - 1); vowel>1; vowel--)
+		{
+			if (! isVowel(word.charAt(vowel)) || isVowel(word.charAt(vowel - 1))
+					|| ! Character.isLetter(word.charAt(vowel - 1)))
+			{
+				continue;
+			}
+
+			// The consonants that start a syllable together, e.g. "sch" or "bl"
+			int start = vowel - 1;
+			while (start > 0 && CLUSTERS.contains(word.substring(start - 1, start + 1).toLowerCase(Locale.ROOT)))
+			{
+				start--;
+			}
+
+			if (start <= fits && start >= fits / 2 && start >= MIN_HYPHEN_PART && hasVowel(word, 0, start))
+			{
+				return start;
+			}
+		}
+		return fits;
+	}
+
+	private static boolean hasVowel(String word, int start, int end)
+	{
+		for (int k=start; k<end; k++)
+		{
+			if (isVowel(word.charAt(k)))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isVowel(char c)
+	{
+		return "aeiouyäöüAEIOUYÄÖÜ".indexOf(c) >= 0;
+	}
+
+	/**
+	 * Get the width of a text with the widths of Helvetica.
+	 * @param text
+	 * @param fontSize
+	 * @return
+	 */
+	public static double textWidth(String text, double fontSize)
+	{
+		int width = 0;
+		for (int k=0; k<text.length(); k++)
+		{
+			width += charWidth(text.charAt(k));
+		}
+		return width * fontSize / 1000;
+	}
+
+	private static int charWidth(char c)
+	{
+		if (c >= ' ' && c <= '~')
+		{
+			return WIDTHS[c - ' '];
+		}
+		if (c == 'ß')
+		{
+			return 611;
+		}
+
+		// A letter with an accent is as wide as the letter without it
+		String base = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+		if (base.length() > 0 && base.charAt(0) >= ' ' && base.charAt(0) <= '~')
+		{
+			return WIDTHS[base.charAt(0) - ' '];
+		}
+		return DEFAULT_WIDTH;
+	}
+
+
+	public int getLineCount()
+	{
+		return lines.length;
+	}
+
+	public String getLine(int line)
+	{
+		return lines[line];
+	}
+
+	public double getFontSize()
+	{
+		return fontSize;
+	}
+
+	/**
+	 * Get the width of a line with the widths of Helvetica. A renderer, that
+	 * has to take another font, should squeeze the line to this width.
+	 * @param line
+	 * @return
+	 */
+	public double getLineWidth(int line)
+	{
+		return lineWidths[line];
+	}
+
+	/**
+	 * Get the left end of a line, that is centered in the box.
+	 * @param line
+	 * @return from the left side of the box
+	 */
+	public double getX(int line)
+	{
+		return (width - lineWidths[line]) / 2;
+	}
+
+	/**
+	 * Get the baseline of a line. The lines are centered in the box.
+	 * @param line
+	 * @return from the top of the box
+	 */
+	public double getBaseline(int line)
+	{
+		double leading = lineHeight - (ASCENT + DESCENT) * fontSize;
+		return top + line * lineHeight + leading / 2 + ASCENT * fontSize;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format(Locale.ROOT, "%.1f pt %s", fontSize, String.join(" | ", lines));
+	}
+
+
+	/**
+	 * The key of a layout in the cache.
+	 */
+	private static final class Key
+	{
+		private final String clue;
+		private final double width;
+		private final double height;
+		private final double maxFontSize;
+		private final double minFontSize;
+
+		Key(String clue, double width, double height, double maxFontSize, double minFontSize)
+		{
+			this.clue = clue;
+			this.width = width;
+			this.height = height;
+			this.maxFontSize = maxFontSize;
+			this.minFontSize = minFontSize;
+		}
+
+		@Override
+		public boolean equals(Object object)
+		{
+			if (! (object instanceof Key))
+			{
+				return false;
+			}
+			Key other = (Key) object;
+			return clue.equals(other.clue) && width == other.width && height == other.height
+					&& maxFontSize == other.maxFontSize && minFontSize == other.minFontSize;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int hash = clue.hashCode();
+			hash = 31 * hash + Double.hashCode(width);
+			hash = 31 * hash + Double.hashCode(height);
+			hash = 31 * hash + Double.hashCode(maxFontSize);
+			return 31 * hash + Double.hashCode(minFontSize);
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package cpg.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Importer for delimiter separated files, like CSV (comma separated) or
+ * TSV (tab separated) exports.<br>
+ * <br>
+ * The first field of a record is the keyword, every further non-empty field
+ * is a clue for the keyword. Fields can be quoted with double quotes, then
+ * they may contain delimiters, line breaks and doubled quotes ("").
+ * A header line whose first field is "keyword" or "word" is skipped.<br>
+ * <br>
+ * The input is parsed in blocks of characters and only the current record
+ * is held in memory.<br>
+ *
+ * @see WordImporter
+ */
+public class DelimitedWordImporter implements WordImporter
+{
+	public static final char COMMA = ',';
+	public static final char TAB = '\t';
+
+	private final char delimiter;
+
+
+	/**
+	 * Constructor.
+	 * @param delimiter that separates the fields of a record
+	 */
+	public DelimitedWordImporter(char delimiter)
+	{
+		this.delimiter = delimiter;
+	}
+
+
+	@Override
+	public void read(BufferedReader reader, BiConsumer<String, String> consumer) throws IOException
+	{
+		char[] buffer = new char[1 << 16];
+
+		List<String> record = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+
+		boolean inQuotes = false;
+		boolean quoteInQuotes = false;
+		boolean firstRecord = true;
+
+		int length;
+		while ((length = reader.read(buffer)) != -1)
+		{
+			for (int i=0; i<length; i++)
+			{
+				char c = buffer[i];
+
+				if (inQuotes)
+				{
+					if (quoteInQuotes)
+					{
+						quoteInQuotes = false;
+
+						// A doubled quote is a quote inside the field
+						if (c == '"')
+						{
+							field.append('"');
+							continue;
+						}
+						// Otherwise the quoted part of the field has ended
+						inQuotes = false;
+					}
+					else if (c == '"')
+					{
+						quoteInQuotes = true;
+						continue;
+					}
+					else
+					{
+						field.append(c);
+						continue;
+					}
+				}
+
+				if (c == '"' && field.length() == 0)
+				{
+					inQuotes = true;
+				}
+				else if (c == delimiter)
+				{
+					record.add(field.toString());
+					field.setLength(0);
+				}
+				else if (c == '\n' || c == '\r')
+				{
+					// Line breaks end the record (\r\n gives an empty record that is ignored)
+					record.add(field.toString());
+					field.setLength(0);
+
+					handleRecord(record, firstRecord, consumer);
+					firstRecord = firstRecord && record.get(0).isEmpty();
+					record.clear();
+				}
+				else
+				{
+					field.append(c);
+				}
+			}
+		}
+
+		// The last record might not end with a line break
+		if (field.length() > 0 || ! record.isEmpty())
+		{
+			record.add(field.toString());
+			handleRecord(record, firstRecord, consumer);
+		}
+	}
+
+	private static void handleRecord(List<String> record, boolean firstRecord, BiConsumer<String, String> consumer)
+	{
+		String keyword = record.get(0).trim();
+
+		// Ignore empty lines and the header line
+		if (keyword.isEmpty())
+		{
+			return;
+		}
+		if (firstRecord && (keyword.equalsIgnoreCase("keyword") || keyword.equalsIgnoreCase("word")))
+		{
+			return;
+		}
+
+		for (int i=1; i<record.size(); i++)
+		{
+			String clue = record.get(i).trim();
+
+			if (! clue.isEmpty())
+			{
+				consumer.accept(keyword, clue);
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package cpg.util;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This is a helper class to convert a word list between the text format
+ * and the binary dictionary format. The direction of the conversion
+ * depends on the format of the source file.<br>
+ * <br>
+ * It can also be used from the command line, e.g. to convert the word
+ * lists once before they are shipped:<br>
+ * java cpg.util.DictionaryConverter words.txt words.xpd<br>
+ *
+ * @see BinaryDictionary
+ * @see FileHandler
+ */
+public class DictionaryConverter
+{
+	/**
+	 * Convert a text word list into a binary dictionary.
+	 * @param textFile
+	 * @param binaryFile
+	 * @throws IOException
+	 */
+	public static void textToBinary(File textFile, File binaryFile) throws IOException
+	{
+		FileHandler loader = new FileHandler(textFile);
+		BinaryDictionary.write(loader.getLoadedData(), binaryFile);
+	}
+
+	/**
+	 * Convert a binary dictionary into a text word list.
+	 * @param binaryFile
+	 * @param textFile
+	 * @throws IOException
+	 */
+	public static void binaryToText(File binaryFile, File textFile) throws IOException
+	{
+		FileHandler loader = new FileHandler(binaryFile);
+		loader.writeToTextFile(textFile);
+	}
+
+	/**
+	 * Convert a file into the other format: a binary dictionary
+	 * becomes a text file and vice versa.
+	 * @param source
+	 * @param target
+	 * @throws IOException
+	 */
+	public static void convert(File source, File target) throws IOException
+	{
+		if (BinaryDictionary.isBinaryDictionary(source))
+		{
+			binaryToText(source, target);
+		}
+		else
+		{
+			textToBinary(source, target);
+		}
+	}
+
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length != 2)
+		{
+			System.err.println("Usage: DictionaryConverter <source> <target>");
+			System.exit(1);
+		}
+
+		convert(new File(args[0]), new File(args[1]));
+	}
+}
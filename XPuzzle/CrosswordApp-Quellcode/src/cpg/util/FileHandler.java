@@ -1,22 +1,26 @@
 package cpg.util;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.text.Normalizer;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.function.DoubleConsumer;
+import java.util.zip.GZIPInputStream;
 
 import cpg.mvc.crossword.model.Word;
 import cpg.mvc.crossword.model.WordList;
-import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.StringProperty;
-import javafx.util.Pair;
 
 /**
  * This is a helper class to load data from a file into a WordList or
@@ -24,7 +28,8 @@ import javafx.util.Pair;
  * <br>
  * A line in a text file consists of a keyword (word to be guessed) and a
  * clue, separated by one ore more blanks. Lines beginning with a # are
- * comment lines and ignored when the file is read.<br>
+ * comment lines and ignored when the file is read. Word data can also be
+ * loaded from CSV, TSV and JSON Lines files and from binary dictionaries.<br>
  * <br>
  * Note that in a text file a keyword may appear several times (with different clues),
  * but in the WordList a key is unique. Instead, in the WordList a keyword has a list of clues,
@@ -34,13 +39,26 @@ import javafx.util.Pair;
  * This makes is quicker to keep the data sorted while reading from file.<br>
  *
  * @see WordList
+ * @see WordImporters
  *
  */
 public class FileHandler
 {
+	// The number of keywords after which the progress of loading a binary dictionary is reported
+	private static final int PROGRESS_INTERVAL = 4096;
+
+	// The encoding of the text files of older versions on Windows
+	private static final Charset LEGACY_CHARSET = Charset.forName("windows-1252");
+
+	// The number of bytes at the beginning of a text file that are checked for the encoding
+	private static final int ENCODING_PREFIX_SIZE = 1 << 16;
+
 	Map<String,List<String>> loadedData = new TreeMap<String,List<String>>();
 
-	private BufferedReader bufferedReader;
+	private final KeywordNormalizer normalizer = new KeywordNormalizer();
+
+	// Gets the progress of loading a file, between 0 and 1
+	private DoubleConsumer progressListener = progress -> {};
 
 
 	/**
@@ -69,16 +87,16 @@ public class FileHandler
 	{
 		for (Word word : wordList.getWordData())
 		{
-			for (Pair<StringProperty, BooleanProperty> clue : word.getAll())
+			for (String clue : word.getClues())
 			{
 				if (this.loadedData.containsKey(word.getKeyword()))
 				{
-					this.loadedData.get(word.getKeyword()).add(clue.getKey().get());
+					this.loadedData.get(word.getKeyword()).add(clue);
 				}
 				else
 				{
 					List<String> newClueList = new ArrayList<>();
-					newClueList.add(clue.getKey().get());
+					newClueList.add(clue);
 					loadedData.put(word.getKeyword(), newClueList);
 				}
 			}
@@ -94,13 +112,7 @@ public class FileHandler
 	{
 		WordList wordList = new WordList();
 
-		for (String key : this.loadedData.keySet())
-		{
-			for (String clue : this.loadedData.get(key))
-			{
-				wordList.addClue(key, clue);
-			}
-		}
+		wordList.addAll(this.loadedData);
 
 		return wordList;
 	}
@@ -108,129 +120,200 @@ public class FileHandler
 
 
 
+	/**
+	 * Load the data from a file into the TreeMap. The format is
+	 * recognized by the file extension or by the content.
+	 * @param file
+	 * @throws IOException
+	 */
 	public void loadFile(File file) throws IOException
 	{
-		loadTextFile(file);
-		// To do: It would be nice, to support here more file types, like XML
+		if (BinaryDictionary.isBinaryDictionary(file))
+		{
+			loadBinaryFile(file);
+		}
+		else
+		{
+			loadWordDataFile(file);
+		}
 	}
 
 
 	/**
-	 * Load the data from a text file into the TreeMap wordData of this class.
+	 * Load the data from a binary dictionary into the TreeMap wordData of this class.
+	 * The keywords in a binary dictionary are already normalized and sorted.
 	 * @param file
 	 * @throws IOException
 	 */
-	private void loadTextFile(File file) throws IOException
+	private void loadBinaryFile(File file) throws IOException
 	{
-		FileReader fileReader = new FileReader(file);
-		bufferedReader = new BufferedReader(fileReader);
-
-		// Iterate through the lines of the file
-		String line = bufferedReader.readLine();
-		while (line != null)
-		{
-			// Remove empty spaces at the beginning and end of the line
-			line = line.trim();
-
-			// Ignore comment lines, starting with a #
-			if (line.startsWith("#"))
-			{
-				line = bufferedReader.readLine();
-				continue;
-			}
-
-			// Split the line into two parts (a keyword and a clue)
-			String splitLine[] = line.split(" ",2);
-
-			// If there are not 2 parts, the keyword and/or the clue is missing
-			// in that case ignore it...
-			if (splitLine.length != 2)
-			{
-				line = bufferedReader.readLine();
-				continue;
-			}
+		BinaryDictionary dictionary = BinaryDictionary.open(file);
 
-			String keyword = splitLine[0].trim();
-			String clue = splitLine[1].trim();
+		int keywordCount = dictionary.getKeywordCount();
+		int[] loaded = new int[1];
 
-			/* Check if the keyword has a correct format,
-			 * i.e. only alphabetical letters, no special signs,
-			 * otherwise ignore it
-			 */
-			if (! isCorrectKeyword(keyword))
+		dictionary.forEach((keyword, clues) -> {
+			if (++loaded[0] % PROGRESS_INTERVAL == 0)
 			{
-				line = bufferedReader.readLine();
-				continue;
+				progressListener.accept((double) loaded[0] / keywordCount);
 			}
 
-			/* Convert the keyword into an appropriate format,
-			 * e.g. transform umlaute, only upper case letters...
-			 */
-			keyword = normalizeKeyword(keyword);
-
-			// Finally, add the keyword with the clue to the map :-)
 			if (loadedData.containsKey(keyword))
 			{
-				loadedData.get(keyword).add(clue);
+				loadedData.get(keyword).addAll(clues);
 			}
 			else
 			{
-				List<String> newClueList = new ArrayList<>();
-				newClueList.add(clue);
-				loadedData.put(keyword, newClueList);
+				loadedData.put(keyword, clues);
 			}
+		});
+		progressListener.accept(1.0);
+	}
+
 
-			line = bufferedReader.readLine();
+	/**
+	 * Load the data from a text, CSV, TSV or JSON Lines file into the TreeMap
+	 * wordData of this class. The records are streamed from the file directly
+	 * into the map.<br>
+	 * <br>
+	 * Older versions wrote the text files in the encoding of the platform,
+	 * so the encoding is detected from the beginning of the file: if it is no
+	 * valid UTF-8, the file is read as Windows-1252, instead of losing the
+	 * keywords with umlauts.
+	 * @param file
+	 * @throws IOException
+	 */
+	private void loadWordDataFile(File file) throws IOException
+	{
+		InputStream in = new ProgressInputStream(new FileInputStream(file), file.length(), progressListener);
+
+		// Word lists that were saved compressed
+		if (file.getName().endsWith(WordListWriter.GZIP_EXTENSION))
+		{
+			in = new GZIPInputStream(in, 1 << 16);
 		}
 
+		BufferedInputStream bufferedIn = new BufferedInputStream(in, ENCODING_PREFIX_SIZE);
+		Charset charset = detectCharset(bufferedIn);
+
+		try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(bufferedIn, charset), 1 << 16))
+		{
+			skipByteOrderMark(bufferedReader);
+
+			WordImporter importer = WordImporters.forFile(file, bufferedReader);
+			importer.read(bufferedReader, this::addLoadedEntry);
+		}
 	}
 
+	/**
+	 * Detect the encoding of a word list from the beginning of the stream.
+	 * The stream is reset afterwards, so it is still read only once.
+	 * @param in
+	 * @return UTF-8, or the legacy encoding if the beginning is no valid UTF-8
+	 * @throws IOException
+	 */
+	private static Charset detectCharset(BufferedInputStream in) throws IOException
+	{
+		byte[] prefix = new byte[ENCODING_PREFIX_SIZE];
+
+		in.mark(prefix.length);
+		int length = 0;
+		int read = 0;
+		while (length < prefix.length && (read = in.read(prefix, length, prefix.length - length)) != -1)
+		{
+			length = length + read;
+		}
+		in.reset();
 
+		// A character that is cut off at the end of the prefix is no error
+		CoderResult result = StandardCharsets.UTF_8.newDecoder()
+				.decode(ByteBuffer.wrap(prefix, 0, length), CharBuffer.allocate(length), read != -1);
 
+		return result.isError() ? LEGACY_CHARSET : StandardCharsets.UTF_8;
+	}
 
 	/**
-	 * write data from the wordData into a file
-	 * @param wordMap
-	 * @param file
+	 * Add a keyword with a clue from a file to the TreeMap.
+	 * @param keyword as it is in the file
+	 * @param clue
 	 */
-	public void writeToFile(File file)
+	private void addLoadedEntry(String keyword, String clue)
 	{
-		writeToTextFile(file);
-		// To do: It would be nice, to support here more file types, like XML
+		/* Check if the keyword has a correct format,
+		 * i.e. only alphabetical letters, no special signs,
+		 * otherwise ignore it. In the same pass, convert the keyword
+		 * into an appropriate format, e.g. transform umlaute,
+		 * only upper case letters...
+		 */
+		keyword = normalizer.normalizeCorrectKeyword(keyword);
+		if (keyword == null)
+		{
+			return;
+		}
+
+		// Finally, add the keyword with the clue to the map :-)
+		if (loadedData.containsKey(keyword))
+		{
+			loadedData.get(keyword).add(clue);
+		}
+		else
+		{
+			List<String> newClueList = new ArrayList<>();
+			newClueList.add(clue);
+			loadedData.put(keyword, newClueList);
+		}
 	}
 
-	public void writeToTextFile(File file)
+	private static void skipByteOrderMark(BufferedReader reader) throws IOException
 	{
-		// Standard header for the file
-		String content = "# --------------- XPuzzle Wordlist -------------- \n";
-		content +=       "# This file provides a list of keywords and clues \n";
-		content +=       "# in order to generate a crossword puzzle. \n";
-		content +=       "# -----------------------------------------------\n\n";
-
-		// Iterate over all the elements in the wordMap:
-		for (String keyword : this.loadedData.keySet())
+		reader.mark(1);
+		if (reader.read() != '\uFEFF')
 		{
-			// Iterate over all the clues for a specific keyword:
-			for (String clue : this.loadedData.get(keyword))
-			{
-				// Write the keyword + clue combination into a line of the string content
-				content = content + keyword + " " + clue + "\n";
-			}
+			reader.reset();
 		}
+	}
 
-		// Now write the content into a text file
-		try (BufferedWriter bw = new BufferedWriter(new FileWriter(file)))
-		{
-			bw.write(content);
 
-			// no need to close it.
-			//bw.close();
 
+
+	/**
+	 * write data from the wordData into a file
+	 * @param wordMap
+	 * @param file
+	 * @throws IOException
+	 */
+	public void writeToFile(File file) throws IOException
+	{
+		if (file.getName().endsWith(BinaryDictionary.FILE_EXTENSION))
+		{
+			writeToBinaryFile(file);
 		}
-		catch (IOException e)
+		else
 		{
-			e.printStackTrace();
+			writeToTextFile(file);
 		}
+		// To do: It would be nice, to support here more file types, like XML
+	}
+
+	/**
+	 * Write the loaded data as binary dictionary into a file.
+	 * @param file
+	 * @throws IOException
+	 */
+	public void writeToBinaryFile(File file) throws IOException
+	{
+		BinaryDictionary.write(this.loadedData, file);
+	}
+
+	/**
+	 * Write the loaded data as text file, gzip compressed if the
+	 * file name ends with ".gz".
+	 * @param file
+	 * @throws IOException
+	 */
+	public void writeToTextFile(File file) throws IOException
+	{
+		new WordListWriter(file).write(this.loadedData);
 	}
 
 
@@ -244,16 +327,7 @@ public class FileHandler
 	 */
 	public boolean isCorrectKeyword(String keyword)
 	{
-		char[] characters = keyword.toCharArray();
-
-		for (char c : characters)
-		{
-			if (! Character.isLetter(c))
-			{
-				return false;
-			}
-		}
-		return true;
+		return normalizer.isCorrectKeyword(keyword);
 	}
 
 	/**
@@ -262,24 +336,11 @@ public class FileHandler
 	 *
 	 * @param keyword
 	 * @return normalized keyword
+	 * @see KeywordNormalizer
 	 */
 	public String normalizeKeyword(String keyword)
 	{
-		// Convert all letters to upper case letters
-		keyword = keyword.toUpperCase();
-
-		// Replace all upper case Umlauts (for German crossword puzzles)
-		keyword = keyword.replace("Ü", "UE")
-	                          .replace("Ö", "OE")
-	                          .replace("Ä", "AE")
-	                          .replace("ß", "SS");
-
-	    // Remove all diacritical marks from unicode chars, e.g. É becomes E
-		keyword = Normalizer
-		        .normalize(keyword, Normalizer.Form.NFD)
-		        .replaceAll("[^\\p{ASCII}]", "");
-
-		return keyword;
+		return normalizer.normalizeKeyword(keyword);
 	}
 
 
@@ -298,4 +359,14 @@ public class FileHandler
 	{
 		this.loadedData = wordMap;
 	}
+
+	/**
+	 * Set a listener that gets the progress of loading a file,
+	 * as value between 0 and 1. It is called on the loading thread.
+	 * @param progressListener
+	 */
+	public void setProgressListener(DoubleConsumer progressListener)
+	{
+		this.progressListener = progressListener;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,325 @@
+package cpg.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Importer for JSON Lines files, i.e. one JSON object per line, e.g.:<br>
+ * {"keyword": "ROM", "clue": "Capital of Italy"}<br>
+ * {"keyword": "PARIS", "clues": ["Capital of France", "Son of Priam"]}<br>
+ * <br>
+ * The keyword is taken from the field "keyword" (or "word"), the clues from
+ * the field "clue" (or "hint") and the array "clues". All other fields are
+ * ignored. Lines that are no valid objects are ignored as well, like the
+ * invalid lines in a text file.<br>
+ *
+ * @see WordImporter
+ */
+public class JsonLinesWordImporter implements WordImporter
+{
+	// The line that is parsed and the current position in it
+	private String line;
+	private int position;
+
+
+	@Override
+	public void read(BufferedReader reader, BiConsumer<String, String> consumer) throws IOException
+	{
+		List<String> clues = new ArrayList<>();
+
+		while ((line = reader.readLine()) != null)
+		{
+			position = 0;
+			clues.clear();
+
+			String keyword = parseObject(clues);
+
+			if (keyword == null || keyword.trim().isEmpty())
+			{
+				continue;
+			}
+
+			for (String clue : clues)
+			{
+				if (! clue.trim().isEmpty())
+				{
+					consumer.accept(keyword.trim(), clue.trim());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parse the object in the current line.
+	 * @param clues gets the clues of the object
+	 * @return the keyword or null, if the line is not a valid object
+	 */
+	private String parseObject(List<String> clues)
+	{
+		String keyword = null;
+
+		skipWhitespace();
+		if (! consume('{'))
+		{
+			return null;
+		}
+
+		skipWhitespace();
+		if (consume('}'))
+		{
+			return null;
+		}
+
+		do
+		{
+			skipWhitespace();
+			String name = parseString();
+
+			skipWhitespace();
+			if (name == null || ! consume(':'))
+			{
+				return null;
+			}
+			skipWhitespace();
+
+			if ((name.equals("keyword") || name.equals("word")) && peek() == '"')
+			{
+				keyword = parseString();
+				if (keyword == null)
+				{
+					return null;
+				}
+			}
+			else if ((name.equals("clue") || name.equals("hint")) && peek() == '"')
+			{
+				String clue = parseString();
+				if (clue == null)
+				{
+					return null;
+				}
+				clues.add(clue);
+			}
+			else if (name.equals("clues") && peek() == '[')
+			{
+				if (! parseStringArray(clues))
+				{
+					return null;
+				}
+			}
+			else if (! skipValue())
+			{
+				return null;
+			}
+
+			skipWhitespace();
+		}
+		while (consume(','));
+
+		if (! consume('}'))
+		{
+			return null;
+		}
+
+		return keyword;
+	}
+
+	private boolean parseStringArray(List<String> strings)
+	{
+		consume('[');
+		skipWhitespace();
+		if (consume(']'))
+		{
+			return true;
+		}
+
+		do
+		{
+			skipWhitespace();
+			if (peek() == '"')
+			{
+				String string = parseString();
+				if (string == null)
+				{
+					return false;
+				}
+				strings.add(string);
+			}
+			else if (! skipValue())
+			{
+				return false;
+			}
+			skipWhitespace();
+		}
+		while (consume(','));
+
+		return consume(']');
+	}
+
+	/**
+	 * Parse a string value including the escape sequences.
+	 * @return the string or null, if there is no valid string
+	 */
+	private String parseString()
+	{
+		if (! consume('"'))
+		{
+			return null;
+		}
+
+		StringBuilder builder = null;
+		int start = position;
+
+		while (position < line.length())
+		{
+			char c = line.charAt(position);
+
+			if (c == '"')
+			{
+				String result;
+				if (builder == null)
+				{
+					result = line.substring(start, position);
+				}
+				else
+				{
+					result = builder.append(line, start, position).toString();
+				}
+				position++;
+				return result;
+			}
+
+			if (c == '\\')
+			{
+				if (builder == null)
+				{
+					builder = new StringBuilder();
+				}
+				builder.append(line, start, position);
+
+				if (position + 1 >= line.length())
+				{
+					return null;
+				}
+
+				char escaped = line.charAt(position + 1);
+				position = position + 2;
+
+				switch (escaped)
+				{
+					case 'b': builder.append('\b'); break;
+					case 'f': builder.append('\f'); break;
+					case 'n': builder.append('\n'); break;
+					case 'r': builder.append('\r'); break;
+					case 't': builder.append('\t'); break;
+					case 'u':
+						if (position + 4 > line.length())
+						{
+							return null;
+						}
+						try
+						{
+							builder.append((char) Integer.parseInt(line.substring(position, position + 4), 16));
+						}
+						catch (NumberFormatException e)
+						{
+							return null;
+						}
+						position = position + 4;
+						break;
+					default:
+						// \" \\ \/
+						builder.append(escaped);
+				}
+				start = position;
+				continue;
+			}
+
+			position++;
+		}
+
+		// The string is not terminated
+		return null;
+	}
+
+	/**
+	 * Skip any value (string, number, literal, object or array).
+	 * @return true, if a value could be skipped
+	 */
+	private boolean skipValue()
+	{
+		char c = peek();
+
+		if (c == '"')
+		{
+			return parseString() != null;
+		}
+
+		if (c == '{' || c == '[')
+		{
+			// Skip nested objects and arrays by counting the brackets
+			int depth = 0;
+			while (position < line.length())
+			{
+				c = line.charAt(position);
+
+				if (c == '"')
+				{
+					if (parseString() == null)
+					{
+						return false;
+					}
+					continue;
+				}
+				if (c == '{' || c == '[')
+				{
+					depth++;
+				}
+				else if (c == '}' || c == ']')
+				{
+					depth--;
+				}
+				position++;
+
+				if (depth == 0)
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		// Numbers, true, false and null
+		int start = position;
+		while (position < line.length() && ",}] \t".indexOf(line.charAt(position)) < 0)
+		{
+			position++;
+		}
+		return position > start;
+	}
+
+	private void skipWhitespace()
+	{
+		while (position < line.length() && Character.isWhitespace(line.charAt(position)))
+		{
+			position++;
+		}
+	}
+
+	private char peek()
+	{
+		return position < line.length() ? line.charAt(position) : 0;
+	}
+
+	private boolean consume(char c)
+	{
+		if (peek() == c)
+		{
+			position++;
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,185 @@
+package cpg.util;
+
+import java.text.Normalizer;
+
+/**
+ * This class converts keywords into the format that is used in the
+ * crossword puzzle, that means only upper case letters A-Z. Umlauts are
+ * transliterated (e.g. Ü becomes UE, ß becomes SS) and diacritical marks
+ * are removed (e.g. É becomes E).<br>
+ * <br>
+ * The transliteration of all the Latin characters is computed once into
+ * a table, so normalizing a keyword does not need any regular expressions or
+ * unicode normalization. Keywords that consist only of the letters A-Z are
+ * returned as they are. The check whether a keyword has a correct format
+ * is done in the same pass.<br>
+ * <br>
+ * A KeywordNormalizer reuses its buffer between the calls, so it is not
+ * thread safe. Every thread should use its own normalizer.<br>
+ *
+ * @see FileHandler
+ */
+public class KeywordNormalizer
+{
+	// Basic Latin, Latin-1 Supplement, Latin Extended-A and B
+	private static final int TABLE_SIZE = 0x250;
+
+	private static final String[] TRANSLITERATION = new String[TABLE_SIZE];
+
+	private static final boolean[] LETTER = new boolean[TABLE_SIZE];
+
+	static
+	{
+		for (char c=0; c<TABLE_SIZE; c++)
+		{
+			TRANSLITERATION[c] = transliterate(String.valueOf(c));
+			LETTER[c] = Character.isLetter(c);
+		}
+	}
+
+	private char[] buffer = new char[32];
+
+
+	/**
+	 * Checks if the keyword has a correct format, that means
+	 * only consists of letters (and no special signs or numbers).
+	 *
+	 * @param keyword
+	 * @return is correct?
+	 */
+	public boolean isCorrectKeyword(String keyword)
+	{
+		for (int i=0; i<keyword.length(); i++)
+		{
+			char c = keyword.charAt(i);
+
+			if (c < TABLE_SIZE ? ! LETTER[c] : ! Character.isLetter(c))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Converts a keyword into a proper format, that means
+	 * only upper case alphabets A-Z.
+	 *
+	 * @param keyword
+	 * @return normalized keyword
+	 */
+	public String normalizeKeyword(String keyword)
+	{
+		return normalize(keyword, false);
+	}
+
+	/**
+	 * Checks the format of a keyword and converts it in one pass.
+	 *
+	 * @param keyword
+	 * @return normalized keyword or null, if the keyword does not have a correct format
+	 * or no letter is left
+	 */
+	public String normalizeCorrectKeyword(String keyword)
+	{
+		// e.g. Greek letters have no transliteration and are removed
+		String normalized = normalize(keyword, true);
+		return normalized == null || normalized.isEmpty() ? null : normalized;
+	}
+
+
+	private String normalize(String keyword, boolean onlyLetters)
+	{
+		int length = keyword.length();
+
+		// The fast path: the keyword is normalized already
+		int i = 0;
+		while (i < length && keyword.charAt(i) >= 'A' && keyword.charAt(i) <= 'Z')
+		{
+			i++;
+		}
+		if (i == length)
+		{
+			return keyword;
+		}
+
+		ensureCapacity(length);
+		keyword.getChars(0, i, buffer, 0);
+		int size = i;
+
+		for (; i<length; i++)
+		{
+			char c = keyword.charAt(i);
+
+			// The pure ASCII letters
+			if (c >= 'A' && c <= 'Z')
+			{
+				buffer[size++] = c;
+				continue;
+			}
+			if (c >= 'a' && c <= 'z')
+			{
+				buffer[size++] = (char) (c - 'a' + 'A');
+				continue;
+			}
+
+			// Everything else is looked up in the transliteration table
+			String replacement;
+			if (c < TABLE_SIZE)
+			{
+				if (onlyLetters && ! LETTER[c])
+				{
+					return null;
+				}
+				replacement = TRANSLITERATION[c];
+			}
+			else
+			{
+				if (onlyLetters && ! Character.isLetter(c))
+				{
+					return null;
+				}
+				replacement = transliterate(String.valueOf(c));
+			}
+
+			ensureCapacity(size + replacement.length() + length - i);
+			replacement.getChars(0, replacement.length(), buffer, size);
+			size = size + replacement.length();
+		}
+
+		return new String(buffer, 0, size);
+	}
+
+	private void ensureCapacity(int capacity)
+	{
+		if (buffer.length < capacity)
+		{
+			char[] newBuffer = new char[Math.max(capacity, 2 * buffer.length)];
+			System.arraycopy(buffer, 0, newBuffer, 0, buffer.length);
+			buffer = newBuffer;
+		}
+	}
+
+	/**
+	 * The slow, general transliteration. It is used to compute the table
+	 * and for characters outside of the table.
+	 * @param text
+	 * @return transliterated text
+	 */
+	private static String transliterate(String text)
+	{
+		// Convert all letters to upper case letters
+		text = text.toUpperCase();
+
+		// Replace all upper case Umlauts (for German crossword puzzles)
+		text = text.replace("Ü", "UE")
+				   .replace("Ö", "OE")
+				   .replace("Ä", "AE")
+				   .replace("ß", "SS");
+
+		// Remove all diacritical marks from unicode chars, e.g. É becomes E
+		return Normalizer
+				.normalize(text, Normalizer.Form.NFD)
+				.replaceAll("[^\\p{ASCII}]", "");
+	}
+}
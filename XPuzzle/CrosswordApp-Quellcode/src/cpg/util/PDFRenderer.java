@@ -0,0 +1,474 @@
+package cpg.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+
+import cpg.mvc.crossword.model.Crossword;
+import cpg.mvc.crossword.model.PlacedWord;
+
+/**
+ * This class writes crosswords with their placed words as one PDF document,
+ * without JavaFX, e.g. to export many puzzles on a server.<br>
+ * <br>
+ * A crossword that does not fit on one page is split into pages of whole
+ * squares. The size of the squares between 36 and 50 points and the
+ * orientation of the pages are chosen, so that the crossword needs as few
+ * pages as possible, and the rows and columns are spread evenly over the
+ * pages. The arrows of the clue fields next to a page that point into it
+ * are drawn on the page, too.<br>
+ * <br>
+ * The pages are written one after the other into the stream, so only one
+ * page is kept in memory. All the pages share one resource dictionary with
+ * the font and the six arrows, that are defined once as form XObjects.
+ * The arrows look like the ones of the CrosswordCanvasRenderer.<br>
+ * <br>
+ * The clues are laid out by the ClueLayout, like in the SVGRenderer. The
+ * standard font Helvetica is used, so no font is embedded.<br>
+ *
+ * @see SVGRenderer
+ */
+public class PDFRenderer
+{
+	// A4 in points
+	private static final double PAGE_WIDTH = 595.28;
+	private static final double PAGE_HEIGHT = 841.89;
+	private static final double MARGIN = 36;
+
+	private static final int FIELD_SIZE = 50;
+
+	// The size of a square on the page in points
+	private static final int MAX_SQUARE_SIZE = 50;
+	private static final int MIN_SQUARE_SIZE = 36;
+
+	private static final Charset WIN_ANSI = Charset.forName("windows-1252");
+
+	// The arrows in the order of the Orientations, with their content in the target field
+	private static final String[] ARROW_NAMES = {"HR", "VD", "RD", "LD", "TR", "BR"};
+
+	private static final String[] ARROW_CONTENTS = {
+			"0 19 m 0 31 l 10 25 l f",
+			"19 0 m 31 0 l 25 10 l f",
+			"0 8 m 14 8 l 14 35 l S 8 30 m 20 30 l 14 40 l f",
+			"50 8 m 36 8 l 36 35 l S 30 30 m 42 30 l 36 40 l f",
+			"8 50 m 8 36 l 35 36 l S 30 30 m 30 42 l 40 36 l f",
+			"8 0 m 8 14 l 35 14 l S 30 8 m 30 20 l 40 14 l f"};
+
+	// The objects that come before the pages
+	private static final int CATALOG = 1;
+	private static final int PAGES = 2;
+	private static final int FONT = 3;
+	private static final int RESOURCES = 4;
+	private static final int FIRST_ARROW = 5;
+	private static final int FIRST_PAGE = FIRST_ARROW + ARROW_NAMES.length;
+
+	private final List<Crossword> crosswords;
+
+
+	/**
+	 * Constructor for the document of one crossword.
+	 * @param crossword
+	 */
+	public PDFRenderer(Crossword crossword)
+	{
+		this(Collections.singletonList(crossword));
+	}
+
+	/**
+	 * Constructor for one document with the pages of several crosswords.
+	 * @param crosswords
+	 */
+	public PDFRenderer(List<Crossword> crosswords)
+	{
+		this.crosswords = crosswords;
+	}
+
+
+	/**
+	 * Write the PDF document to a file. An existing file is overwritten.
+	 * @param file
+	 * @throws IOException
+	 */
+	public void writeToFile(File file) throws IOException
+	{
+		try (OutputStream outputStream = Files.newOutputStream(file.toPath()))
+		{
+			render(outputStream);
+		}
+	}
+
+	/**
+	 * Get the number of pages of the document.
+	 * @return
+	 */
+	public int getPageCount()
+	{
+		int count = 0;
+		for (Crossword crossword : crosswords)
+		{
+			count += paginate(crossword).size();
+		}
+		return count;
+	}
+
+	/**
+	 * Write the PDF document to an OutputStream. The stream is flushed, but not closed.
+	 * @param outputStream
+	 * @throws IOException
+	 */
+	public void render(OutputStream outputStream) throws IOException
+	{
+		PDFOutput out = new PDFOutput(new BufferedOutputStream(outputStream, 1 << 16));
+
+		int pageCount = getPageCount();
+		long[] offsets = new long[FIRST_PAGE + 2 * pageCount];
+
+		out.write("%PDF-1.4\n%âãÏÓ\n");
+
+		// The shared objects
+		offsets[CATALOG] = out.position();
+		out.write(CATALOG + " 0 obj\n<< /Type /Catalog /Pages " + PAGES + " 0 R >>\nendobj\n");
+
+		offsets[FONT] = out.position();
+		out.write(FONT + " 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>\nendobj\n");
+
+		offsets[RESOURCES] = out.position();
+		StringBuilder resources = new StringBuilder();
+		resources.append(RESOURCES).append(" 0 obj\n<< /Font << /F1 ").append(FONT).append(" 0 R >> /XObject <<");
+		for (int a=0; a<ARROW_NAMES.length; a++)
+		{
+			resources.append(" /").append(ARROW_NAMES[a]).append(' ').append(FIRST_ARROW + a).append(" 0 R");
+		}
+		resources.append(" >> >>\nendobj\n");
+		out.write(resources.toString());
+
+		for (int a=0; a<ARROW_NAMES.length; a++)
+		{
+			offsets[FIRST_ARROW + a] = out.position();
+			byte[] content = ARROW_CONTENTS[a].getBytes(StandardCharsets.US_ASCII);
+			out.write((FIRST_ARROW + a) + " 0 obj\n<< /Type /XObject /Subtype /Form /BBox [0 0 "
+					+ FIELD_SIZE + " " + FIELD_SIZE + "] /Length " + content.length + " >>\nstream\n");
+			out.write(content);
+			out.write("\nendstream\nendobj\n");
+		}
+
+		// The pages, one after the other
+		int page = 0;
+		for (Crossword crossword : crosswords)
+		{
+			for (Page part : paginate(crossword))
+			{
+				int pageObject = FIRST_PAGE + 2 * page;
+				int contentObject = pageObject + 1;
+
+				offsets[pageObject] = out.position();
+				out.write(pageObject + " 0 obj\n<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 "
+						+ format(part.pageWidth) + " " + format(part.pageHeight) + "] /Resources " + RESOURCES
+						+ " 0 R /Contents " + contentObject + " 0 R >>\nendobj\n");
+
+				byte[] content = compress(renderPage(crossword, part));
+
+				offsets[contentObject] = out.position();
+				out.write(contentObject + " 0 obj\n<< /Length " + content.length + " /Filter /FlateDecode >>\nstream\n");
+				out.write(content);
+				out.write("\nendstream\nendobj\n");
+
+				page++;
+			}
+		}
+
+		offsets[PAGES] = out.position();
+		StringBuilder pages = new StringBuilder();
+		pages.append(PAGES).append(" 0 obj\n<< /Type /Pages /Count ").append(pageCount).append(" /Kids [");
+		for (int p=0; p<pageCount; p++)
+		{
+			pages.append(FIRST_PAGE + 2 * p).append(" 0 R ");
+		}
+		pages.append("] >>\nendobj\n");
+		out.write(pages.toString());
+
+		// The cross reference table
+		long xref = out.position();
+		StringBuilder table = new StringBuilder();
+		table.append("xref\n0 ").append(offsets.length).append("\n0000000000 65535 f \n");
+		for (int i=1; i<offsets.length; i++)
+		{
+			table.append(String.format(Locale.ROOT, "%010d 00000 n \n", offsets[i]));
+		}
+		table.append("trailer\n<< /Size ").append(offsets.length).append(" /Root ").append(CATALOG)
+				.append(" 0 R >>\nstartxref\n").append(xref).append("\n%%EOF\n");
+		out.write(table.toString());
+
+		out.flush();
+	}
+
+
+	/**
+	 * Split a crossword into pages. The largest size of the squares is
+	 * chosen, that gives the smallest number of pages.
+	 * @param crossword
+	 * @return
+	 */
+	static List<Page> paginate(Crossword crossword)
+	{
+		int rows = crossword.getRows();
+		int columns = crossword.getColumns();
+
+		int bestSize = MAX_SQUARE_SIZE;
+		int bestPages = Integer.MAX_VALUE;
+		boolean landscape = false;
+
+		// Portrait is preferred, if both need the same number of pages
+		for (int size=MAX_SQUARE_SIZE; size>=MIN_SQUARE_SIZE; size--)
+		{
+			int portrait = pagesAcross(columns, size, PAGE_WIDTH) * pagesAcross(rows, size, PAGE_HEIGHT);
+			int wide = pagesAcross(columns, size, PAGE_HEIGHT) * pagesAcross(rows, size, PAGE_WIDTH);
+
+			if (Math.min(portrait, wide) < bestPages)
+			{
+				bestPages = Math.min(portrait, wide);
+				bestSize = size;
+				landscape = wide < portrait;
+			}
+		}
+
+		double pageWidth = landscape ? PAGE_HEIGHT : PAGE_WIDTH;
+		double pageHeight = landscape ? PAGE_WIDTH : PAGE_HEIGHT;
+
+		// Spread the rows and columns evenly over the pages
+		int pagesX = pagesAcross(columns, bestSize, pageWidth);
+		int pagesY = pagesAcross(rows, bestSize, pageHeight);
+
+		List<Page> pages = new ArrayList<>(pagesX * pagesY);
+		for (int py=0; py<pagesY; py++)
+		{
+			for (int px=0; px<pagesX; px++)
+			{
+				pages.add(new Page(rows * py / pagesY, columns * px / pagesX,
+						rows * (py + 1) / pagesY, columns * (px + 1) / pagesX,
+						bestSize, pageWidth, pageHeight));
+			}
+		}
+		return pages;
+	}
+
+	private static int pagesAcross(int squares, int size, double pageSize)
+	{
+		int perPage = Math.max((int) ((pageSize - 2 * MARGIN) / size), 1);
+		return (squares + perPage - 1) / perPage;
+	}
+
+	/**
+	 * Make the content stream of a page.
+	 */
+	private static byte[] renderPage(Crossword crossword, Page page)
+	{
+		StringBuilder content = new StringBuilder(8192);
+		double scale = (double) page.squareSize / FIELD_SIZE;
+
+		int x0 = page.firstColumn * FIELD_SIZE;
+		int y0 = page.firstRow * FIELD_SIZE;
+		int width = (page.endColumn - page.firstColumn) * FIELD_SIZE;
+		int height = (page.endRow - page.firstRow) * FIELD_SIZE;
+
+		// The coordinates of the crossword with y downwards, moved to the part on the page
+		content.append("q\n")
+				.append(format(scale)).append(" 0 0 ").append(format(-scale)).append(' ')
+				.append(format(MARGIN)).append(' ').append(format(page.pageHeight - MARGIN)).append(" cm\n")
+				.append("1 0 0 1 ").append(-x0).append(' ').append(-y0).append(" cm\n")
+				.append(x0 - 1).append(' ').append(y0 - 1).append(' ')
+				.append(width + 2).append(' ').append(height + 2).append(" re W n\n");
+
+		// The empty fields in grey and the clue fields in black
+		content.append("0.5 g\n");
+		appendFields(content, crossword, page, false);
+		content.append("0 g\n");
+		appendFields(content, crossword, page, true);
+
+		// The lines of the grid
+		content.append("0 G 1 w\n");
+		for (int i=page.firstRow; i<=page.endRow; i++)
+		{
+			content.append(x0).append(' ').append(i * FIELD_SIZE).append(" m ")
+					.append(x0 + width).append(' ').append(i * FIELD_SIZE).append(" l\n");
+		}
+		for (int j=page.firstColumn; j<=page.endColumn; j++)
+		{
+			content.append(j * FIELD_SIZE).append(' ').append(y0).append(" m ")
+					.append(j * FIELD_SIZE).append(' ').append(y0 + height).append(" l\n");
+		}
+		content.append("S\n");
+
+		// The clues in white
+		content.append("1 g BT\n");
+		for (int i=page.firstRow; i<page.endRow; i++)
+		{
+			for (int j=page.firstColumn; j<page.endColumn; j++)
+			{
+				if (crossword.isClueField(i, j))
+				{
+					appendClue(content, crossword.getClueWord(i, j).getClue(), j * FIELD_SIZE, i * FIELD_SIZE);
+				}
+			}
+		}
+		content.append("ET\n");
+
+		// The arrows, also of the clue fields next to the page
+		content.append("0 g\n");
+		for (int i=Math.max(page.firstRow - 1, 0); i<Math.min(page.endRow + 1, crossword.getRows()); i++)
+		{
+			for (int j=Math.max(page.firstColumn - 1, 0); j<Math.min(page.endColumn + 1, crossword.getColumns()); j++)
+			{
+				if (crossword.isClueField(i, j))
+				{
+					appendArrow(content, crossword.getClueWord(i, j));
+				}
+			}
+		}
+		content.append("Q\n");
+
+		// Characters that are not in WinAnsiEncoding become "?"
+		return content.toString().getBytes(WIN_ANSI);
+	}
+
+	private static void appendFields(StringBuilder content, Crossword crossword, Page page, boolean clueFields)
+	{
+		boolean any = false;
+		for (int i=page.firstRow; i<page.endRow; i++)
+		{
+			for (int j=page.firstColumn; j<page.endColumn; j++)
+			{
+				if (clueFields ? crossword.isClueField(i, j) : crossword.isEmptyField(i, j))
+				{
+					content.append(j * FIELD_SIZE).append(' ').append(i * FIELD_SIZE).append(" 50 50 re\n");
+					any = true;
+				}
+			}
+		}
+		if (any)
+		{
+			content.append("f\n");
+		}
+	}
+
+	private static void appendClue(StringBuilder content, String clue, int x, int y)
+	{
+		ClueLayout layout = ClueLayout.get(clue);
+
+		// The lines of the clue are centered in the clue field
+		content.append("/F1 ").append(format(layout.getFontSize())).append(" Tf\n");
+		for (int line=0; line<layout.getLineCount(); line++)
+		{
+			content.append("1 0 0 -1 ").append(format(x + ClueLayout.FIELD_MARGIN + layout.getX(line))).append(' ')
+					.append(format(y + ClueLayout.FIELD_MARGIN + layout.getBaseline(line))).append(" Tm (");
+			String part = layout.getLine(line);
+			for (int k=0; k<part.length(); k++)
+			{
+				char c = part.charAt(k);
+				if (c == '(' || c == ')' || c == '\\')
+				{
+					content.append('\\');
+				}
+				content.append(c);
+			}
+			content.append(") Tj\n");
+		}
+	}
+
+	private static void appendArrow(StringBuilder content, PlacedWord word)
+	{
+		// The arrow is drawn into the field of the first letter
+		content.append("q 1 0 0 1 ").append(word.getLetterColumn(0) * FIELD_SIZE).append(' ')
+				.append(word.getLetterRow(0) * FIELD_SIZE).append(" cm /")
+				.append(ARROW_NAMES[word.getOrientation().ordinal()]).append(" Do Q\n");
+	}
+
+	private static byte[] compress(byte[] content) throws IOException
+	{
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 4 + 64);
+		try (DeflaterOutputStream deflater = new DeflaterOutputStream(compressed))
+		{
+			deflater.write(content);
+		}
+		return compressed.toByteArray();
+	}
+
+	private static String format(double value)
+	{
+		return String.format(Locale.ROOT, "%.2f", value);
+	}
+
+
+	/**
+	 * The part of a crossword on a page, the end row and column are excluded.
+	 */
+	static final class Page
+	{
+		final int firstRow;
+		final int firstColumn;
+		final int endRow;
+		final int endColumn;
+		final int squareSize;
+		final double pageWidth;
+		final double pageHeight;
+
+		Page(int firstRow, int firstColumn, int endRow, int endColumn, int squareSize, double pageWidth, double pageHeight)
+		{
+			this.firstRow = firstRow;
+			this.firstColumn = firstColumn;
+			this.endRow = endRow;
+			this.endColumn = endColumn;
+			this.squareSize = squareSize;
+			this.pageWidth = pageWidth;
+			this.pageHeight = pageHeight;
+		}
+	}
+
+	/**
+	 * Counts the bytes that are written, for the cross reference table.
+	 */
+	private static final class PDFOutput extends FilterOutputStream
+	{
+		private long position;
+
+		PDFOutput(OutputStream out)
+		{
+			super(out);
+		}
+
+		void write(String text) throws IOException
+		{
+			write(text.getBytes(StandardCharsets.ISO_8859_1));
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			out.write(b);
+			position++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			out.write(b, off, len);
+			position += len;
+		}
+
+		long position()
+		{
+			return position;
+		}
+	}
+}
@@ -0,0 +1,608 @@
+package cpg.util;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import cpg.mvc.crossword.model.Crossword;
+import cpg.mvc.crossword.model.Orientation;
+import cpg.mvc.crossword.model.PlacedWord;
+
+/**
+ * This class renders a crossword with its placed words as PNG image,
+ * without JavaFX and without an SVG rasterizer, e.g. for the previews on a
+ * web page.<br>
+ * <br>
+ * The image is split into horizontal strips of a few rows. The strips are
+ * drawn with Java2D into BufferedImages and compressed in parallel, and
+ * written one after the other as IDAT chunks straight into the stream, so
+ * only a few strips are kept in memory, even for very large crosswords.
+ * The compressed strips are parts of one deflate stream, like in pigz.<br>
+ * <br>
+ * The puzzle and the solution with the letters are made in the same pass:
+ * a strip is drawn once and copied for the solution, before the letters are
+ * added. The fields, clues and arrows look like the ones of the SVGRenderer,
+ * the clues are laid out by the ClueLayout. The images are grayscale and
+ * have the resolution in their pHYs chunk.<br>
+ *
+ * @see SVGRenderer
+ */
+public class PNGRenderer
+{
+	// A field of 50 pixels at the resolution of a screen
+	public static final int DEFAULT_DPI = 96;
+
+	private static final int FIELD_SIZE = 50;
+
+	// The number of crossword rows of a strip
+	private static final int STRIP_ROWS = 4;
+
+	private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+	// The header of the zlib stream around the deflated strips
+	private static final byte[] ZLIB_HEADER = {0x78, (byte) 0x9C};
+
+	private static final int ADLER_BASE = 65521;
+
+	private static final Color EMPTY_FIELD = Color.GRAY;
+	private static final Font CLUE_FONT = new Font(ClueLayout.FONT_FAMILY, Font.PLAIN, 10);
+	private static final Font LETTER_FONT = new Font("Arial", Font.PLAIN, 24);
+
+	private final Crossword crossword;
+	private final int dpi;
+	private final double scale;
+
+	private final int width;
+	private final int height;
+
+
+	/**
+	 * Constructor for an image with the resolution of a screen.
+	 * @param crossword
+	 */
+	public PNGRenderer(Crossword crossword)
+	{
+		this(crossword, DEFAULT_DPI);
+	}
+
+	/**
+	 * Constructor for an image with a given resolution, e.g. 300 dpi for a
+	 * print, that makes the fields 3 times as large as with 96 dpi.
+	 * @param crossword
+	 * @param dpi
+	 */
+	public PNGRenderer(Crossword crossword, int dpi)
+	{
+		if (dpi <= 0)
+		{
+			throw new IllegalArgumentException("The resolution must be positive: " + dpi);
+		}
+
+		this.crossword = crossword;
+		this.dpi = dpi;
+		this.scale = (double) dpi / DEFAULT_DPI;
+
+		// One pixel more for the last line of the grid
+		this.width = toPixels(crossword.getColumns()) + 1;
+		this.height = toPixels(crossword.getRows()) + 1;
+	}
+
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+	public int getHeight()
+	{
+		return height;
+	}
+
+	/**
+	 * Write the puzzle as PNG image to a file. An existing file is overwritten.
+	 * @param puzzleFile
+	 * @throws IOException
+	 */
+	public void writeToFile(File puzzleFile) throws IOException
+	{
+		try (OutputStream puzzleStream = Files.newOutputStream(puzzleFile.toPath()))
+		{
+			render(puzzleStream, null);
+		}
+	}
+
+	/**
+	 * Write the puzzle and the solution as PNG images to two files.
+	 * Existing files are overwritten.
+	 * @param puzzleFile
+	 * @param solutionFile
+	 * @throws IOException
+	 */
+	public void writeToFiles(File puzzleFile, File solutionFile) throws IOException
+	{
+		try (OutputStream puzzleStream = Files.newOutputStream(puzzleFile.toPath());
+				OutputStream solutionStream = Files.newOutputStream(solutionFile.toPath()))
+		{
+			render(puzzleStream, solutionStream);
+		}
+	}
+
+	/**
+	 * Write the puzzle and the solution as PNG images to OutputStreams.
+	 * The streams are flushed, but not closed.
+	 * @param puzzleStream for the puzzle or null
+	 * @param solutionStream for the solution or null
+	 * @throws IOException
+	 */
+	public void render(OutputStream puzzleStream, OutputStream solutionStream) throws IOException
+	{
+		DataOutputStream puzzleOut = puzzleStream == null ? null
+				: new DataOutputStream(new BufferedOutputStream(puzzleStream, 1 << 16));
+		DataOutputStream solutionOut = solutionStream == null ? null
+				: new DataOutputStream(new BufferedOutputStream(solutionStream, 1 << 16));
+		boolean withSolution = solutionOut != null;
+
+		writeHeader(puzzleOut);
+		writeHeader(solutionOut);
+
+		int strips = Math.max((crossword.getRows() + STRIP_ROWS - 1) / STRIP_ROWS, 1);
+
+		// The strips are made in parallel, but written in their order
+		int window = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+		Deque<CompletableFuture<Strip[]>> pending = new ArrayDeque<>();
+
+		long puzzleAdler = 1;
+		long solutionAdler = 1;
+
+		for (int next=0, written=0; written<strips; written++)
+		{
+			while (next < strips && pending.size() < window)
+			{
+				final int strip = next++;
+				pending.add(CompletableFuture.supplyAsync(() -> renderStrip(strip, strip == strips - 1, withSolution)));
+			}
+
+			Strip[] result;
+			try
+			{
+				result = pending.remove().join();
+			}
+			catch (CompletionException e)
+			{
+				throw new IOException("The strip could not be rendered", e.getCause());
+			}
+
+			boolean first = written == 0;
+			boolean last = written == strips - 1;
+
+			if (puzzleOut != null)
+			{
+				puzzleAdler = combineAdler(puzzleAdler, result[0].adler, result[0].length);
+				writeStrip(puzzleOut, result[0], first, last, puzzleAdler);
+			}
+			if (withSolution)
+			{
+				solutionAdler = combineAdler(solutionAdler, result[1].adler, result[1].length);
+				writeStrip(solutionOut, result[1], first, last, solutionAdler);
+			}
+		}
+
+		writeEnd(puzzleOut);
+		writeEnd(solutionOut);
+	}
+
+
+	/**
+	 * Draw a strip of the puzzle and of the solution and compress it.
+	 */
+	private Strip[] renderStrip(int strip, boolean last, boolean withSolution)
+	{
+		int firstRow = strip * STRIP_ROWS;
+		int endRow = Math.min(firstRow + STRIP_ROWS, crossword.getRows());
+
+		int top = toPixels(firstRow);
+		int bottom = last ? height : toPixels(endRow);
+
+		BufferedImage puzzle = new BufferedImage(width, Math.max(bottom - top, 1), BufferedImage.TYPE_BYTE_GRAY);
+		byte[] pixels = ((DataBufferByte) puzzle.getRaster().getDataBuffer()).getData();
+		// The background is white
+		Arrays.fill(pixels, (byte) 0xFF);
+
+		Graphics2D g = createGraphics(puzzle, top);
+		drawFields(g, firstRow, endRow);
+		g.dispose();
+
+		Strip[] result = new Strip[withSolution ? 2 : 1];
+		result[0] = compress(puzzle, last);
+
+		if (withSolution)
+		{
+			// The solution is the puzzle with the letters
+			BufferedImage solution = new BufferedImage(puzzle.getWidth(), puzzle.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+			System.arraycopy(pixels, 0, ((DataBufferByte) solution.getRaster().getDataBuffer()).getData(), 0, pixels.length);
+
+			g = createGraphics(solution, top);
+			drawLetters(g, firstRow, endRow);
+			g.dispose();
+
+			result[1] = compress(solution, last);
+		}
+		return result;
+	}
+
+	private Graphics2D createGraphics(BufferedImage image, int top)
+	{
+		Graphics2D g = image.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+
+		// The coordinates of the crossword, moved by whole pixels to the strip,
+		// so the lines on the border of two strips are drawn the same in both
+		g.translate(0, -top);
+		g.scale(scale, scale);
+		return g;
+	}
+
+	private void drawFields(Graphics2D g, int firstRow, int endRow)
+	{
+		// The lines at the borders of the strip are also drawn by the fields next to it
+		int fromRow = Math.max(firstRow - 1, 0);
+		int toRow = Math.min(endRow + 1, crossword.getRows());
+
+		for (int i=fromRow; i<toRow; i++)
+		{
+			for (int j=0; j<crossword.getColumns(); j++)
+			{
+				int x = j * FIELD_SIZE;
+				int y = i * FIELD_SIZE;
+
+				if (crossword.isEmptyField(i, j))
+				{
+					g.setColor(EMPTY_FIELD);
+					g.fillRect(x, y, FIELD_SIZE, FIELD_SIZE);
+				}
+				else if (crossword.isClueField(i, j))
+				{
+					g.setColor(Color.BLACK);
+					g.fillRect(x, y, FIELD_SIZE, FIELD_SIZE);
+				}
+			}
+		}
+
+		// The lines of the grid
+		g.setColor(Color.BLACK);
+		g.setStroke(new BasicStroke(1));
+		int columns = crossword.getColumns();
+		for (int i=fromRow; i<=toRow; i++)
+		{
+			g.drawLine(0, i * FIELD_SIZE, columns * FIELD_SIZE, i * FIELD_SIZE);
+		}
+		for (int j=0; j<=columns; j++)
+		{
+			g.drawLine(j * FIELD_SIZE, fromRow * FIELD_SIZE, j * FIELD_SIZE, toRow * FIELD_SIZE);
+		}
+
+		// The clues of the last row of a field can reach a little below it
+		g.setColor(Color.WHITE);
+		for (int i=fromRow; i<toRow; i++)
+		{
+			for (int j=0; j<crossword.getColumns(); j++)
+			{
+				PlacedWord word = crossword.getClueWord(i, j);
+				if (word != null)
+				{
+					drawClue(g, word.getClue(), j * FIELD_SIZE, i * FIELD_SIZE);
+				}
+			}
+		}
+
+		// The arrows reach into the neighbour fields, also into this strip
+		g.setColor(Color.BLACK);
+		g.setStroke(new BasicStroke(2));
+		for (int i=fromRow; i<toRow; i++)
+		{
+			for (int j=0; j<crossword.getColumns(); j++)
+			{
+				PlacedWord word = crossword.getClueWord(i, j);
+				if (word != null)
+				{
+					drawArrow(g, word.getOrientation(), j * FIELD_SIZE, i * FIELD_SIZE);
+				}
+			}
+		}
+	}
+
+	private static void drawClue(Graphics2D g, String clue, int x, int y)
+	{
+		ClueLayout layout = ClueLayout.get(clue);
+
+		Font font = CLUE_FONT.deriveFont((float) layout.getFontSize());
+		for (int line=0; line<layout.getLineCount(); line++)
+		{
+			// A line is squeezed, if the font on this system is wider than Arial
+			String text = layout.getLine(line);
+			double width = font.getStringBounds(text, g.getFontRenderContext()).getWidth();
+			if (width > layout.getLineWidth(line))
+			{
+				g.setFont(font.deriveFont(AffineTransform.getScaleInstance(layout.getLineWidth(line) / width, 1)));
+			}
+			else
+			{
+				g.setFont(font);
+			}
+
+			g.drawString(text, (float) (x + ClueLayout.FIELD_MARGIN + layout.getX(line)),
+					(float) (y + ClueLayout.FIELD_MARGIN + layout.getBaseline(line)));
+		}
+	}
+
+	private static void drawArrow(Graphics2D g, Orientation orientation, int x, int y)
+	{
+		Path2D.Double path = new Path2D.Double();
+		switch (orientation)
+		{
+			case HORIZONTAL_RIGHT:
+				fillTriangle(g, x+50, y+20, x+50, y+30, x+60, y+25);
+				return;
+			case VERTICAL_DOWN:
+				fillTriangle(g, x+20, y+50, x+30, y+50, x+25, y+60);
+				return;
+			case RIGHT_DOWN:
+				addPolyline(path, x+50, y+15, x+62, y+15, x+62, y+32);
+				addPolyline(path, x+57, y+24, x+62, y+32, x+67, y+24);
+				break;
+			case LEFT_DOWN:
+				addPolyline(path, x, y+15, x-12, y+15, x-12, y+32);
+				addPolyline(path, x-7, y+24, x-12, y+32, x-17, y+24);
+				break;
+			case TOP_RIGHT:
+				addPolyline(path, x+15, y, x+15, y-12, x+32, y-12);
+				addPolyline(path, x+24, y-7, x+32, y-12, x+24, y-17);
+				break;
+			case BOTTOM_RIGHT:
+				addPolyline(path, x+15, y+50, x+15, y+62, x+32, y+62);
+				addPolyline(path, x+24, y+57, x+32, y+62, x+24, y+67);
+				break;
+			default:
+				return;
+		}
+		g.draw(path);
+	}
+
+	private static void fillTriangle(Graphics2D g, int x1, int y1, int x2, int y2, int x3, int y3)
+	{
+		g.fillPolygon(new int[] {x1, x2, x3}, new int[] {y1, y2, y3}, 3);
+	}
+
+	private static void addPolyline(Path2D.Double path, int x1, int y1, int x2, int y2, int x3, int y3)
+	{
+		path.moveTo(x1, y1);
+		path.lineTo(x2, y2);
+		path.lineTo(x3, y3);
+	}
+
+	private void drawLetters(Graphics2D g, int firstRow, int endRow)
+	{
+		g.setColor(Color.BLACK);
+		g.setFont(LETTER_FONT);
+		FontMetrics metrics = g.getFontMetrics();
+
+		for (int i=firstRow; i<endRow; i++)
+		{
+			for (int j=0; j<crossword.getColumns(); j++)
+			{
+				if (crossword.isLetterField(i, j))
+				{
+					// The letter in the middle of the field
+					String letter = String.valueOf(crossword.getLetter(i, j));
+					int x = j * FIELD_SIZE + (FIELD_SIZE - metrics.stringWidth(letter)) / 2;
+					int y = i * FIELD_SIZE + (FIELD_SIZE - metrics.getHeight()) / 2 + metrics.getAscent();
+					g.drawString(letter, x, y);
+				}
+			}
+		}
+	}
+
+	private int toPixels(int fields)
+	{
+		return (int) Math.round(fields * FIELD_SIZE * scale);
+	}
+
+
+	/**
+	 * Filter the rows of a strip with the Sub filter of PNG and deflate them.
+	 * The deflated data ends on a byte boundary, so the strips can be put one
+	 * after the other. Only the last strip finishes the deflate stream.
+	 */
+	private static Strip compress(BufferedImage image, boolean last)
+	{
+		int imageWidth = image.getWidth();
+		int imageHeight = image.getHeight();
+		byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+
+		// Every row starts with the type of its filter
+		byte[] filtered = new byte[(imageWidth + 1) * imageHeight];
+		int k = 0;
+		for (int y=0; y<imageHeight; y++)
+		{
+			int row = y * imageWidth;
+			filtered[k++] = 1;
+			filtered[k++] = pixels[row];
+			for (int x=1; x<imageWidth; x++)
+			{
+				filtered[k++] = (byte) (pixels[row + x] - pixels[row + x - 1]);
+			}
+		}
+
+		Adler32 adler = new Adler32();
+		adler.update(filtered);
+
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		deflater.setInput(filtered);
+
+		ByteArrayOutputStream data = new ByteArrayOutputStream(filtered.length / 8 + 64);
+		byte[] buffer = new byte[1 << 15];
+		if (last)
+		{
+			deflater.finish();
+			while (! deflater.finished())
+			{
+				data.write(buffer, 0, deflater.deflate(buffer));
+			}
+		}
+		else
+		{
+			int count;
+			do
+			{
+				count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+				data.write(buffer, 0, count);
+			}
+			while (count == buffer.length);
+		}
+		deflater.end();
+
+		return new Strip(data.toByteArray(), adler.getValue(), filtered.length);
+	}
+
+	/**
+	 * Get the Adler-32 checksum of two parts from the checksums of the parts,
+	 * like adler32_combine of zlib.
+	 * @param adler1 of the first part
+	 * @param adler2 of the second part
+	 * @param length2 of the second part
+	 * @return
+	 */
+	static long combineAdler(long adler1, long adler2, long length2)
+	{
+		long remainder = length2 % ADLER_BASE;
+		long sum1 = adler1 & 0xFFFF;
+		long sum2 = (remainder * sum1) % ADLER_BASE;
+
+		sum1 += (adler2 & 0xFFFF) + ADLER_BASE - 1;
+		sum2 += ((adler1 >> 16) & 0xFFFF) + ((adler2 >> 16) & 0xFFFF) + ADLER_BASE - remainder;
+
+		if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+		if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+		if (sum2 >= 2L * ADLER_BASE) sum2 -= 2L * ADLER_BASE;
+		if (sum2 >= ADLER_BASE) sum2 -= ADLER_BASE;
+
+		return (sum2 << 16) | sum1;
+	}
+
+	private void writeHeader(DataOutputStream out) throws IOException
+	{
+		if (out == null)
+		{
+			return;
+		}
+
+		out.write(PNG_SIGNATURE);
+
+		// 8 bit grayscale without interlace
+		ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+		DataOutputStream data = new DataOutputStream(header);
+		data.writeInt(width);
+		data.writeInt(height);
+		data.write(new byte[] {8, 0, 0, 0, 0});
+		writeChunk(out, "IHDR", header.toByteArray());
+
+		// The resolution in pixels per meter
+		int pixelsPerMeter = (int) Math.round(dpi / 0.0254);
+		ByteArrayOutputStream physical = new ByteArrayOutputStream(9);
+		data = new DataOutputStream(physical);
+		data.writeInt(pixelsPerMeter);
+		data.writeInt(pixelsPerMeter);
+		data.write(1);
+		writeChunk(out, "pHYs", physical.toByteArray());
+	}
+
+	private static void writeStrip(DataOutputStream out, Strip strip, boolean first, boolean last, long adler) throws IOException
+	{
+		if (out == null)
+		{
+			return;
+		}
+
+		// The first strip starts the zlib stream, the last one ends it with the checksum
+		ByteArrayOutputStream chunk = new ByteArrayOutputStream(strip.data.length + 6);
+		if (first)
+		{
+			chunk.write(ZLIB_HEADER);
+		}
+		chunk.write(strip.data);
+		if (last)
+		{
+			new DataOutputStream(chunk).writeInt((int) adler);
+		}
+		writeChunk(out, "IDAT", chunk.toByteArray());
+	}
+
+	private static void writeEnd(DataOutputStream out) throws IOException
+	{
+		if (out == null)
+		{
+			return;
+		}
+
+		writeChunk(out, "IEND", new byte[0]);
+		out.flush();
+	}
+
+	private static void writeChunk(DataOutputStream out, String type, byte[] data) throws IOException
+	{
+		byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+
+		CRC32 crc = new CRC32();
+		crc.update(typeBytes);
+		crc.update(data);
+
+		out.writeInt(data.length);
+		out.write(typeBytes);
+		out.write(data);
+		out.writeInt((int) crc.getValue());
+	}
+
+
+	/**
+	 * A compressed strip with the checksum and length of its uncompressed data.
+	 */
+	private static final class Strip
+	{
+		final byte[] data;
+		final long adler;
+		final long length;
+
+		Strip(byte[] data, long adler, long length)
+		{
+			this.data = data;
+			this.adler = adler;
+			this.length = length;
+		}
+	}
+}
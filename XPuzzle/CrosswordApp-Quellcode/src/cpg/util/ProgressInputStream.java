@@ -0,0 +1,84 @@
+package cpg.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.DoubleConsumer;
+
+/**
+ * An input stream that counts the bytes that are read and reports
+ * the progress as a value between 0 and 1, e.g. to show the progress
+ * of loading a file.<br>
+ *
+ * @see FileHandler
+ */
+public class ProgressInputStream extends FilterInputStream
+{
+	private final long length;
+
+	private final DoubleConsumer progressListener;
+
+	private long position = 0;
+
+
+	/**
+	 * Constructor.
+	 * @param in stream to read from
+	 * @param length total number of bytes that are expected
+	 * @param progressListener gets the progress
+	 */
+	public ProgressInputStream(InputStream in, long length, DoubleConsumer progressListener)
+	{
+		super(in);
+		this.length = length;
+		this.progressListener = progressListener;
+	}
+
+
+	@Override
+	public int read() throws IOException
+	{
+		int b = super.read();
+		if (b != -1)
+		{
+			advance(1);
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException
+	{
+		int read = super.read(b, off, len);
+		if (read > 0)
+		{
+			advance(read);
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException
+	{
+		long skipped = super.skip(n);
+		advance(skipped);
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported()
+	{
+		// The position could not be counted back
+		return false;
+	}
+
+	private void advance(long bytes)
+	{
+		position = position + bytes;
+
+		if (length > 0)
+		{
+			progressListener.accept(Math.min(1.0, (double) position / length));
+		}
+	}
+}
@@ -0,0 +1,533 @@
+package cpg.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import cpg.mvc.crossword.model.Crossword;
+import cpg.mvc.crossword.model.Orientation;
+import cpg.mvc.crossword.model.PlacedWord;
+
+/**
+ * This class renders a crossword with its placed words, e.g. from the
+ * CrosswordGenerator, as SVG document.<br>
+ * <br>
+ * The elements are written straight to a Writer in one pass over the grid,
+ * so the document is never built up as one String. The renderer only keeps
+ * the crossword, so several renderers can write their documents at the
+ * same time.<br>
+ * <br>
+ * The plain document is built like the one of the former SVGMakery: first
+ * a rectangle for every field together with the clues and then the arrows
+ * that indicate the directions of the words to be guessed. The clues are
+ * laid out by the ClueLayout, like in all the other renderers.<br>
+ * <br>
+ * The optimized document looks the same, but is much smaller, e.g. for
+ * large crosswords that are printed. The field types and the six arrows
+ * are defined once as symbols and placed with &lt;use&gt; elements, the
+ * styles are kept in one CSS block and the runs of empty fields in a row
+ * are merged into one path.<br>
+ *
+ * @author dave
+ *
+ */
+public class SVGRenderer
+{
+	private static final int FIELD_SIZE = 50;
+
+	private static final String ARROW_STYLE = "style=\"stroke:black;stroke-width:2;fill:none\" />\n";
+
+	// The styles and symbols of the optimized document
+	private static final String OPTIMIZED_DEFS = "<defs>\n"
+			+ "<style type=\"text/css\"><![CDATA[\n"
+			+ ".e,.l,.c{stroke:black}\n"
+			+ ".e{fill:grey}\n"
+			+ ".l{fill:white}\n"
+			+ ".c{fill:black}\n"
+			+ ".a{stroke:black;stroke-width:2;fill:none}\n"
+			+ "text{font-size:" + (int) ClueLayout.MAX_FONT_SIZE + "px;font-family:Arial;stroke:white}\n"
+			+ "]]></style>\n"
+			+ "<symbol id=\"l\"><rect class=\"l\" width=\"50\" height=\"50\"/></symbol>\n"
+			+ "<symbol id=\"c\"><rect class=\"c\" width=\"50\" height=\"50\"/></symbol>\n"
+			+ "<symbol id=\"hr\" overflow=\"visible\"><polygon points=\"50 20,50 30,60 25\"/></symbol>\n"
+			+ "<symbol id=\"vd\" overflow=\"visible\"><polygon points=\"20 50,30 50,25 60\"/></symbol>\n"
+			+ "<symbol id=\"rd\" overflow=\"visible\"><path class=\"a\" d=\"M50 15H62V32M57 24L62 32L67 24\"/></symbol>\n"
+			+ "<symbol id=\"ld\" overflow=\"visible\"><path class=\"a\" d=\"M0 15H-12V32M-7 24L-12 32L-17 24\"/></symbol>\n"
+			+ "<symbol id=\"tr\" overflow=\"visible\"><path class=\"a\" d=\"M15 0V-12H32M24 -7L32 -12L24 -17\"/></symbol>\n"
+			+ "<symbol id=\"br\" overflow=\"visible\"><path class=\"a\" d=\"M15 50V62H32M24 57L32 62L24 67\"/></symbol>\n"
+			+ "</defs>\n";
+
+	private final Crossword crossword;
+
+	private final boolean optimized;
+
+
+	/**
+	 * The constructor.
+	 *
+	 * @param crossword
+	 */
+	public SVGRenderer(Crossword crossword)
+	{
+		this(crossword, false);
+	}
+
+	/**
+	 * Constructor for the plain or the optimized document.
+	 *
+	 * @param crossword
+	 * @param optimized
+	 */
+	public SVGRenderer(Crossword crossword, boolean optimized)
+	{
+		this.crossword = crossword;
+		this.optimized = optimized;
+	}
+
+
+	/**
+	 * Write the SVG document to a file. An existing file is overwritten.
+	 * @param file
+	 * @throws IOException
+	 */
+	public void writeToFile(File file) throws IOException
+	{
+		try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))
+		{
+			render(writer);
+		}
+	}
+
+	/**
+	 * Write the SVG document to an OutputStream in UTF-8.
+	 * The stream is flushed, but not closed.
+	 * @param outputStream
+	 * @throws IOException
+	 */
+	public void render(OutputStream outputStream) throws IOException
+	{
+		Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+		render(writer);
+		writer.flush();
+	}
+
+	/**
+	 * Write the SVG document to a Writer. The Writer is not closed.
+	 * @param out
+	 * @throws IOException
+	 */
+	public void render(Writer out) throws IOException
+	{
+		int width = crossword.getColumns() * FIELD_SIZE;
+		int height = crossword.getRows() * FIELD_SIZE;
+
+		if (optimized)
+		{
+			renderOptimized(out, width, height);
+			return;
+		}
+
+		writeXMLHeader(out);
+		writeSVGStart(out, width, height);
+
+		writeCrosswordGrid(out);
+
+		writeCrosswordArrows(out);
+
+		writeSVGEnd(out);
+	}
+
+	private void renderOptimized(Writer out, int width, int height) throws IOException
+	{
+		writeXMLHeader(out);
+		out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"\n"
+				+ "version=\"1.1\" baseProfile=\"full\"\n"
+				+ "viewBox=\"0 0 ");
+		out.write(Integer.toString(width));
+		out.write(' ');
+		out.write(Integer.toString(height));
+		out.write("\">\n"
+				+ "<title>Crossword Puzzle</title>\n");
+		out.write(OPTIMIZED_DEFS);
+
+		writeEmptyFields(out);
+
+		// The letter and clue fields with the clues
+		for (int i=0; i<crossword.getRows(); i++)
+		{
+			for (int j=0; j<crossword.getColumns(); j++)
+			{
+				if (crossword.isLetterField(i, j))
+				{
+					writeUse(out, "l", j * FIELD_SIZE, i * FIELD_SIZE);
+				}
+				else if (crossword.isClueField(i, j))
+				{
+					writeUse(out, "c", j * FIELD_SIZE, i * FIELD_SIZE);
+					writeOptimizedClue(out, j * FIELD_SIZE, i * FIELD_SIZE, crossword.getClueWord(i, j).getClue());
+				}
+			}
+		}
+
+		// The arrows are written last, because they reach into the neighbour fields
+		for (PlacedWord word : crossword.getWords())
+		{
+			writeUse(out, getArrowSymbol(word.getOrientation()), word.getColumn() * FIELD_SIZE, word.getRow() * FIELD_SIZE);
+		}
+
+		writeSVGEnd(out);
+	}
+
+	/**
+	 * Write the empty fields as one path. Every run of empty fields in a row
+	 * is one rectangle with lines between its fields.
+	 */
+	private void writeEmptyFields(Writer out) throws IOException
+	{
+		boolean started = false;
+
+		for (int i=0; i<crossword.getRows(); i++)
+		{
+			int j = 0;
+			while (j < crossword.getColumns())
+			{
+				if (! crossword.isEmptyField(i, j))
+				{
+					j++;
+					continue;
+				}
+
+				int start = j;
+				while (j < crossword.getColumns() && crossword.isEmptyField(i, j))
+				{
+					j++;
+				}
+
+				if (! started)
+				{
+					out.write("<path class=\"e\" d=\"");
+					started = true;
+				}
+
+				int x = start * FIELD_SIZE;
+				int y = i * FIELD_SIZE;
+				int width = (j - start) * FIELD_SIZE;
+
+				out.write('M');
+				out.write(Integer.toString(x));
+				out.write(' ');
+				out.write(Integer.toString(y));
+				out.write('h');
+				out.write(Integer.toString(width));
+				out.write("v50h-");
+				out.write(Integer.toString(width));
+				out.write('z');
+
+				for (int k=start+1; k<j; k++)
+				{
+					out.write('M');
+					out.write(Integer.toString(k * FIELD_SIZE));
+					out.write(' ');
+					out.write(Integer.toString(y));
+					out.write("v50");
+				}
+			}
+		}
+
+		if (started)
+		{
+			out.write("\"/>\n");
+		}
+	}
+
+	/**
+	 * Write the clue text inside a clue field with the styles of the CSS block.
+	 * The font size is only written, if the clue needs a smaller one.
+	 */
+	private static void writeOptimizedClue(Writer out, int x, int y, String content) throws IOException
+	{
+		ClueLayout layout = ClueLayout.get(content);
+
+		out.write("<text");
+		if (layout.getFontSize() != ClueLayout.MAX_FONT_SIZE)
+		{
+			out.write(" font-size=\"");
+			out.write(format(layout.getFontSize()));
+			out.write('"');
+		}
+		out.write('>');
+
+		for (int line=0; line<layout.getLineCount(); line++)
+		{
+			out.write("<tspan x=\"");
+			out.write(format(x + ClueLayout.FIELD_MARGIN + layout.getX(line)));
+			out.write("\" y=\"");
+			out.write(format(y + ClueLayout.FIELD_MARGIN + layout.getBaseline(line)));
+			out.write("\">");
+			writeEscaped(out, layout.getLine(line), 0, layout.getLine(line).length());
+			out.write("</tspan>");
+		}
+
+		out.write("</text>\n");
+	}
+
+	private static void writeUse(Writer out, String symbol, int x, int y) throws IOException
+	{
+		out.write("<use xlink:href=\"#");
+		out.write(symbol);
+		out.write("\" x=\"");
+		out.write(Integer.toString(x));
+		out.write("\" y=\"");
+		out.write(Integer.toString(y));
+		out.write("\"/>\n");
+	}
+
+	private static String getArrowSymbol(Orientation orientation)
+	{
+		switch (orientation)
+		{
+			case HORIZONTAL_RIGHT:
+				return "hr";
+			case VERTICAL_DOWN:
+				return "vd";
+			case RIGHT_DOWN:
+				return "rd";
+			case LEFT_DOWN:
+				return "ld";
+			case TOP_RIGHT:
+				return "tr";
+			default:
+				return "br";
+		}
+	}
+
+	/**
+	 * Get the SVG document as String, e.g. for small crosswords.
+	 * @return
+	 */
+	public String getSVGContent()
+	{
+		StringWriter writer = new StringWriter();
+		try
+		{
+			render(writer);
+		}
+		catch (IOException e)
+		{
+			// A StringWriter does not throw
+			e.printStackTrace();
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Write the crossword grid as SVG code that consists mainly
+	 * of rectangles for every crossword field.
+	 */
+	private void writeCrosswordGrid(Writer out) throws IOException
+	{
+		for (int i=0; i<crossword.getRows(); i++)
+		{
+			for (int j=0; j<crossword.getColumns(); j++)
+			{
+				int x = j * FIELD_SIZE;
+				int y = i * FIELD_SIZE;
+
+				if (crossword.isEmptyField(i, j))
+				{
+					writeRectangle(out, x, y, "black", "grey");
+				}
+				else if (crossword.isLetterField(i, j))
+				{
+					writeRectangle(out, x, y, "black", "white");
+				}
+				else
+				{
+					writeRectangle(out, x, y, "black", "black");
+					writeClue(out, x, y, crossword.getClueWord(i, j).getClue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write the arrows as SVG code to indicate the directions of the
+	 * words to be guessed.
+	 */
+	private void writeCrosswordArrows(Writer out) throws IOException
+	{
+		for (PlacedWord word : crossword.getWords())
+		{
+			writeArrow(out, word.getColumn() * FIELD_SIZE, word.getRow() * FIELD_SIZE, word.getOrientation());
+		}
+	}
+
+	private static void writeArrow(Writer out, int x, int y, Orientation orientation) throws IOException
+	{
+		switch (orientation)
+		{
+			case HORIZONTAL_RIGHT:
+				writePolygon(out, x+50, y+20, x+50, y+30, x+60, y+25);
+				break;
+			case VERTICAL_DOWN:
+				writePolygon(out, x+20, y+50, x+30, y+50, x+25, y+60);
+				break;
+			case RIGHT_DOWN:
+				writePolyline(out, x+50, y+15, x+62, y+15, x+62, y+32);
+				writePolyline(out, x+57, y+24, x+62, y+32, x+67, y+24);
+				out.write('\n');
+				break;
+			case LEFT_DOWN:
+				writePolyline(out, x, y+15, x-12, y+15, x-12, y+32);
+				writePolyline(out, x-7, y+24, x-12, y+32, x-17, y+24);
+				out.write('\n');
+				break;
+			case TOP_RIGHT:
+				writePolyline(out, x+15, y, x+15, y-12, x+32, y-12);
+				writePolyline(out, x+24, y-7, x+32, y-12, x+24, y-17);
+				out.write('\n');
+				break;
+			case BOTTOM_RIGHT:
+				writePolyline(out, x+15, y+50, x+15, y+62, x+32, y+62);
+				writePolyline(out, x+24, y+57, x+32, y+62, x+24, y+67);
+				out.write('\n');
+				break;
+			default:
+				break;
+		}
+	}
+
+	private static void writeXMLHeader(Writer out) throws IOException
+	{
+		out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+	}
+
+	private static void writeSVGStart(Writer out, int width, int height) throws IOException
+	{
+		out.write("<svg xmlns:xlink=\"http://www.w3.org/1999/xlink\"\n"
+				+ "version=\"1.1\" baseProfile=\"full\"\n"
+				+ "viewBox=\"0 0 ");
+		out.write(Integer.toString(width));
+		out.write(' ');
+		out.write(Integer.toString(height));
+		out.write("\">\n"
+				+ "<title>Crossword Puzzle</title>\n");
+	}
+
+	private static void writeSVGEnd(Writer out) throws IOException
+	{
+		out.write("</svg>");
+	}
+
+	/**
+	 * Write the clue text inside a clue field.
+	 * @param x position of the clue field.
+	 * @param y position of the clue field.
+	 * @param content
+	 */
+	private static void writeClue(Writer out, int x, int y, String content) throws IOException
+	{
+		ClueLayout layout = ClueLayout.get(content);
+
+		out.write("<text style = \"font-size:");
+		out.write(format(layout.getFontSize()));
+		out.write(";font-family:Arial;stroke:white\"> \n");
+
+		// The clue is wrapped into lines, that are centered in the clue field
+		for (int line=0; line<layout.getLineCount(); line++)
+		{
+			out.write("\t<tspan x=\"");
+			out.write(format(x + ClueLayout.FIELD_MARGIN + layout.getX(line)));
+			out.write("\" y=\"");
+			out.write(format(y + ClueLayout.FIELD_MARGIN + layout.getBaseline(line)));
+			out.write("\" >\n\t \t");
+			writeEscaped(out, layout.getLine(line), 0, layout.getLine(line).length());
+			out.write("\t</tspan>\n");
+		}
+
+		out.write("</text>\n\n");
+	}
+
+	/**
+	 * Format a coordinate with at most one decimal place.
+	 */
+	private static String format(double value)
+	{
+		long tenths = Math.round(value * 10);
+		return tenths % 10 == 0 ? Long.toString(tenths / 10) : Double.toString(tenths / 10.0);
+	}
+
+	/**
+	 * Write a part of a text with the XML special characters escaped.
+	 */
+	private static void writeEscaped(Writer out, String text, int start, int end) throws IOException
+	{
+		for (int i=start; i<end; i++)
+		{
+			char c = text.charAt(i);
+			switch (c)
+			{
+				case '&':
+					out.write("&amp;");
+					break;
+				case '<':
+					out.write("&lt;");
+					break;
+				case '>':
+					out.write("&gt;");
+					break;
+				default:
+					out.write(c);
+			}
+		}
+	}
+
+	private static void writeRectangle(Writer out, int x, int y, String stroke, String fill) throws IOException
+	{
+		out.write("<rect x=\"");
+		out.write(Integer.toString(x));
+		out.write("\" y=\"");
+		out.write(Integer.toString(y));
+		out.write("\" width=\"50\" height=\"50\" style=\"stroke:");
+		out.write(stroke);
+		out.write("; fill:");
+		out.write(fill);
+		out.write(" \" />\n");
+	}
+
+	private static void writePolygon(Writer out, int x1, int y1, int x2, int y2, int x3, int y3) throws IOException
+	{
+		out.write("<polygon points=\"");
+		writePoints(out, x1, y1, x2, y2, x3, y3);
+		out.write("\" />\n\n");
+	}
+
+	private static void writePolyline(Writer out, int x1, int y1, int x2, int y2, int x3, int y3) throws IOException
+	{
+		out.write("<polyline points=\"");
+		writePoints(out, x1, y1, x2, y2, x3, y3);
+		out.write("\" ");
+		out.write(ARROW_STYLE);
+	}
+
+	private static void writePoints(Writer out, int x1, int y1, int x2, int y2, int x3, int y3) throws IOException
+	{
+		out.write(Integer.toString(x1));
+		out.write(' ');
+		out.write(Integer.toString(y1));
+		out.write(',');
+		out.write(Integer.toString(x2));
+		out.write(' ');
+		out.write(Integer.toString(y2));
+		out.write(',');
+		out.write(Integer.toString(x3));
+		out.write(' ');
+		out.write(Integer.toString(y3));
+	}
+}
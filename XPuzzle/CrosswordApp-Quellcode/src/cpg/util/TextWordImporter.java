@@ -0,0 +1,47 @@
+package cpg.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.function.BiConsumer;
+
+/**
+ * Importer for the text format of XPuzzle word lists.<br>
+ * <br>
+ * A line in a text file consists of a keyword (word to be guessed) and a
+ * clue, separated by one ore more blanks. Lines beginning with a # are
+ * comment lines and ignored when the file is read.<br>
+ *
+ * @see WordImporter
+ */
+public class TextWordImporter implements WordImporter
+{
+	@Override
+	public void read(BufferedReader reader, BiConsumer<String, String> consumer) throws IOException
+	{
+		// Iterate through the lines of the file
+		String line;
+		while ((line = reader.readLine()) != null)
+		{
+			// Remove empty spaces at the beginning and end of the line
+			line = line.trim();
+
+			// Ignore comment lines, starting with a #
+			if (line.startsWith("#"))
+			{
+				continue;
+			}
+
+			// Split the line into two parts (a keyword and a clue)
+			int separator = line.indexOf(' ');
+
+			// If there are not 2 parts, the keyword and/or the clue is missing
+			// in that case ignore it...
+			if (separator < 0)
+			{
+				continue;
+			}
+
+			consumer.accept(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package cpg.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.function.BiConsumer;
+
+/**
+ * An importer reads word data in a specific file format and passes every
+ * keyword with its clue to a consumer, record by record. So even very
+ * large files are never held in memory as a whole.<br>
+ * <br>
+ * The keywords are passed as they are in the file, i.e. they are not yet
+ * checked or normalized. A keyword with several clues is passed several times.<br>
+ *
+ * @see WordImporters
+ * @see FileHandler
+ */
+public interface WordImporter
+{
+	/**
+	 * Read all the records and pass every keyword and clue to the consumer.
+	 * @param reader
+	 * @param consumer gets the keyword and the clue of every record
+	 * @throws IOException
+	 */
+	void read(BufferedReader reader, BiConsumer<String, String> consumer) throws IOException;
+}
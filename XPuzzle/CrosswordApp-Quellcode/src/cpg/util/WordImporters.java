@@ -0,0 +1,150 @@
+package cpg.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This helper class chooses the importer for a word data file. The importer
+ * is chosen by the file extension, or if the extension is not known, by
+ * looking at the first line of the content.<br>
+ * <br>
+ * The supported formats are:<br>
+ * - text files (*.txt): keyword and clue, separated by blanks<br>
+ * - CSV files (*.csv): comma separated keyword and clues<br>
+ * - TSV files (*.tsv, *.tab): tab separated keyword and clues<br>
+ * - JSON Lines files (*.jsonl, *.ndjson): one JSON object per line<br>
+ * A compressed file (*.gz) is treated like the file without ".gz".<br>
+ *
+ * @see WordImporter
+ * @see FileHandler
+ */
+public class WordImporters
+{
+	/**
+	 * The file extensions of all the supported formats, e.g. for file dialogs.
+	 */
+	public static final String[] FILE_EXTENSIONS = {"*.txt", "*.csv", "*.tsv", "*.tab", "*.jsonl", "*.ndjson"};
+
+	// The number of characters that are looked at to sniff the format
+	private static final int SNIFF_LIMIT = 8192;
+
+
+	/**
+	 * Get the importer for a file by its extension.
+	 * @param file
+	 * @return importer or null, if the extension is not known
+	 */
+	public static WordImporter forFileName(File file)
+	{
+		String name = file.getName().toLowerCase();
+
+		if (name.endsWith(WordListWriter.GZIP_EXTENSION))
+		{
+			name = name.substring(0, name.length() - WordListWriter.GZIP_EXTENSION.length());
+		}
+
+		if (name.endsWith(".txt"))
+		{
+			return new TextWordImporter();
+		}
+		else if (name.endsWith(".csv"))
+		{
+			return new DelimitedWordImporter(DelimitedWordImporter.COMMA);
+		}
+		else if (name.endsWith(".tsv") || name.endsWith(".tab"))
+		{
+			return new DelimitedWordImporter(DelimitedWordImporter.TAB);
+		}
+		else if (name.endsWith(".jsonl") || name.endsWith(".ndjson"))
+		{
+			return new JsonLinesWordImporter();
+		}
+		return null;
+	}
+
+	/**
+	 * Get the importer for a file, by its extension or by its content.
+	 * The reader is reset to the position where it was before.
+	 * @param file
+	 * @param reader of the file content
+	 * @return importer
+	 * @throws IOException
+	 */
+	public static WordImporter forFile(File file, BufferedReader reader) throws IOException
+	{
+		WordImporter importer = forFileName(file);
+
+		if (importer == null)
+		{
+			importer = forContent(reader);
+		}
+		return importer;
+	}
+
+	/**
+	 * Get the importer by looking at the first line that is not empty
+	 * and not a comment. The reader is reset to the position where it was before.
+	 * @param reader
+	 * @return importer
+	 * @throws IOException
+	 */
+	public static WordImporter forContent(BufferedReader reader) throws IOException
+	{
+		// Look at the beginning of the content and go back again
+		char[] head = new char[SNIFF_LIMIT];
+		int length = 0;
+
+		reader.mark(SNIFF_LIMIT);
+		try
+		{
+			int read;
+			while (length < SNIFF_LIMIT && (read = reader.read(head, length, SNIFF_LIMIT - length)) != -1)
+			{
+				length = length + read;
+			}
+		}
+		finally
+		{
+			reader.reset();
+		}
+
+		String line = null;
+		for (String candidate : new String(head, 0, length).split("\\r?\\n"))
+		{
+			candidate = candidate.trim();
+
+			if (! candidate.isEmpty() && ! candidate.startsWith("#"))
+			{
+				line = candidate;
+				break;
+			}
+		}
+
+		if (line == null)
+		{
+			return new TextWordImporter();
+		}
+
+		if (line.startsWith("{"))
+		{
+			return new JsonLinesWordImporter();
+		}
+
+		if (line.indexOf('\t') >= 0)
+		{
+			return new DelimitedWordImporter(DelimitedWordImporter.TAB);
+		}
+
+		// In a CSV file the first field ends with a comma, in a text file
+		// the keyword ends with a blank (and the clue may contain commas).
+		int comma = line.indexOf(',');
+		int blank = line.indexOf(' ');
+		if (line.startsWith("\"") || (comma >= 0 && (blank < 0 || comma < blank)))
+		{
+			return new DelimitedWordImporter(DelimitedWordImporter.COMMA);
+		}
+
+		return new TextWordImporter();
+	}
+}
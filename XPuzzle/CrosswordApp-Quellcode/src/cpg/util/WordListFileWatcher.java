@@ -0,0 +1,208 @@
+package cpg.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import cpg.mvc.crossword.model.WordList;
+import cpg.mvc.crossword.model.WordListDelta;
+import javafx.application.Platform;
+
+/**
+ * Watches a word list file for changes and applies them to a WordList while
+ * the application is running, e.g. when the file is edited by someone else.<br>
+ * <br>
+ * When the file changes, it is loaded again in the background and compared
+ * to the version that was loaded before. Only the added, removed or changed
+ * keywords are applied to the WordList, in one update on the JavaFX
+ * Application thread. So changes that were made in the editor in the meantime
+ * are kept, as long as the same keywords were not changed in the file.<br>
+ *
+ * @see WordListDelta
+ */
+public class WordListFileWatcher
+{
+	// Wait until the file was not changed for this time, before it is loaded
+	private static final long QUIET_PERIOD = 300;
+
+	private final File file;
+
+	private final WordList wordList;
+
+	private Map<String, List<String>> loadedData;
+
+	private WatchService watchService;
+
+	private Thread watchThread;
+
+	// Set by stop(), so changes that are still queued are not applied anymore
+	private volatile boolean stopped;
+
+
+	/**
+	 * Constructor.
+	 * @param file to watch
+	 * @param wordList that the changes are applied to
+	 */
+	public WordListFileWatcher(File file, WordList wordList)
+	{
+		this.file = file.getAbsoluteFile();
+		this.wordList = wordList;
+	}
+
+
+	/**
+	 * Start watching the file. The current content of the file is taken
+	 * as the version that is loaded into the WordList. It is loaded by the
+	 * watcher thread, so a large file does not block the caller.
+	 * @throws IOException
+	 */
+	public void start() throws IOException
+	{
+		if (watchThread != null || stopped)
+		{
+			return;
+		}
+
+		watchService = FileSystems.getDefault().newWatchService();
+
+		// Files are often saved by moving a new file into place,
+		// so the directory is watched for created files as well.
+		file.getParentFile().toPath().register(watchService,
+				StandardWatchEventKinds.ENTRY_MODIFY,
+				StandardWatchEventKinds.ENTRY_CREATE);
+
+		watchThread = new Thread(this::watch, "WordListFileWatcher");
+		watchThread.setDaemon(true);
+		watchThread.start();
+	}
+
+	/**
+	 * Stop watching the file. Changes that were loaded already, but are not
+	 * applied yet, are dropped. A stopped watcher cannot be started again.
+	 */
+	public void stop()
+	{
+		if (watchThread == null)
+		{
+			return;
+		}
+
+		try
+		{
+			watchService.close();
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+		stopped = true;
+		watchThread.interrupt();
+		watchThread = null;
+	}
+
+
+	private void watch()
+	{
+		// The file is loaded after it is registered, so no change gets lost
+		try
+		{
+			loadedData = new FileHandler(file).getLoadedData();
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+			return;
+		}
+
+		try
+		{
+			while (true)
+			{
+				WatchKey key = watchService.take();
+				boolean changed = isFileChanged(key);
+
+				// Wait until the file is written completely
+				while (changed && (key = watchService.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS)) != null)
+				{
+					isFileChanged(key);
+				}
+
+				if (changed)
+				{
+					reload();
+				}
+			}
+		}
+		catch (InterruptedException | ClosedWatchServiceException e)
+		{
+			// The watcher was stopped
+		}
+	}
+
+	private boolean isFileChanged(WatchKey key)
+	{
+		boolean changed = false;
+
+		for (WatchEvent<?> event : key.pollEvents())
+		{
+			Path changedPath = (Path) event.context();
+
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW
+					|| file.getName().equals(changedPath.toString()))
+			{
+				changed = true;
+			}
+		}
+		key.reset();
+
+		return changed;
+	}
+
+	private void reload()
+	{
+		if (! file.exists())
+		{
+			return;
+		}
+
+		Map<String, List<String>> newData;
+		try
+		{
+			newData = new FileHandler(file).getLoadedData();
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+			return;
+		}
+
+		WordListDelta delta = WordListDelta.compute(loadedData, newData);
+		loadedData = newData;
+
+		if (! delta.isEmpty())
+		{
+			Platform.runLater(() -> {
+				if (! stopped)
+				{
+					wordList.applyChanges(delta);
+				}
+			});
+		}
+	}
+
+
+	public File getFile()
+	{
+		return this.file;
+	}
+}
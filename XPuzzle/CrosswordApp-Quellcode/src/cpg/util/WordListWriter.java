@@ -0,0 +1,238 @@
+package cpg.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import cpg.mvc.crossword.model.Word;
+import cpg.mvc.crossword.model.WordList;
+
+/**
+ * This is a helper class to write a word list as text file. The lines are
+ * streamed directly into a buffered UTF-8 writer, so the whole file content
+ * is never held in memory.<br>
+ * <br>
+ * The data is first written into a temporary file next to the target file,
+ * that is moved into place when it is complete. So a crash while saving
+ * never leaves a half written word list behind.<br>
+ * <br>
+ * If the file name ends with ".gz", the file is written gzip compressed.<br>
+ *
+ * @see FileHandler
+ */
+public class WordListWriter
+{
+	public static final String GZIP_EXTENSION = ".gz";
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final File file;
+
+	private boolean compressed;
+
+
+	/**
+	 * Constructor for a writer to a specific file.
+	 * @param file
+	 */
+	public WordListWriter(File file)
+	{
+		this.file = file;
+		this.compressed = file.getName().endsWith(GZIP_EXTENSION);
+	}
+
+
+	/**
+	 * Write a WordList into the file.
+	 * @param wordList
+	 * @throws IOException
+	 */
+	public void write(WordList wordList) throws IOException
+	{
+		Path temporaryFile = createTemporaryFile(file);
+
+		try
+		{
+			try (Writer writer = openWriter(temporaryFile))
+			{
+				writeHeader(writer);
+
+				for (Word word : wordList.getWordData())
+				{
+					for (int i=0; i<word.getClueCount(); i++)
+					{
+						writeLine(writer, word.getKeyword(), word.getClue(i));
+					}
+				}
+			}
+			moveIntoPlace(temporaryFile, file);
+		}
+		finally
+		{
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	/**
+	 * Write a dictionary of keywords and their clues into the file.
+	 * @param dictionary
+	 * @throws IOException
+	 */
+	public void write(Map<String, List<String>> dictionary) throws IOException
+	{
+		Path temporaryFile = createTemporaryFile(file);
+
+		try
+		{
+			try (Writer writer = openWriter(temporaryFile))
+			{
+				writeHeader(writer);
+
+				for (Map.Entry<String, List<String>> entry : dictionary.entrySet())
+				{
+					for (String clue : entry.getValue())
+					{
+						writeLine(writer, entry.getKey(), clue);
+					}
+				}
+			}
+			moveIntoPlace(temporaryFile, file);
+		}
+		finally
+		{
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+
+	/**
+	 * Get a new temporary file next to a target file.
+	 * @param file the target file
+	 * @return
+	 */
+	static Path createTemporaryFile(File file)
+	{
+		// The temporary file has to be in the same directory, otherwise
+		// it can not be moved atomically.
+		Path target = file.getAbsoluteFile().toPath();
+		String name = "." + target.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp";
+		return target.resolveSibling(name);
+	}
+
+	private Writer openWriter(Path path) throws IOException
+	{
+		// Created like a normal file, so it gets the usual file permissions
+		OutputStream out = new SyncOnCloseOutputStream(new FileOutputStream(path.toFile()));
+
+		if (compressed)
+		{
+			out = new GZIPOutputStream(out, BUFFER_SIZE);
+		}
+
+		return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	/**
+	 * Replace the target file with the complete temporary file.
+	 * @param temporaryFile
+	 * @param file the target file
+	 * @throws IOException
+	 */
+	static void moveIntoPlace(Path temporaryFile, File file) throws IOException
+	{
+		Path target = file.getAbsoluteFile().toPath();
+
+		try
+		{
+			Files.move(temporaryFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			// Some file systems can not do that, so at least replace it in one step
+			Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void writeHeader(Writer writer) throws IOException
+	{
+		// Standard header for the file
+		writer.write("# --------------- XPuzzle Wordlist -------------- \n");
+		writer.write("# This file provides a list of keywords and clues \n");
+		writer.write("# in order to generate a crossword puzzle. \n");
+		writer.write("# -----------------------------------------------\n\n");
+	}
+
+	private static void writeLine(Writer writer, String keyword, String clue) throws IOException
+	{
+		writer.write(keyword);
+		writer.write(' ');
+		writer.write(clue);
+		writer.write('\n');
+	}
+
+
+
+	/**
+	 * Makes sure that the data is really on the disk before the file is
+	 * closed and moved into place.
+	 */
+	private static class SyncOnCloseOutputStream extends FilterOutputStream
+	{
+		private final FileOutputStream fileOut;
+
+		SyncOnCloseOutputStream(FileOutputStream fileOut)
+		{
+			super(fileOut);
+			this.fileOut = fileOut;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			fileOut.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			try
+			{
+				fileOut.flush();
+				fileOut.getFD().sync();
+			}
+			finally
+			{
+				super.close();
+			}
+		}
+	}
+
+
+
+	/* -------------------------------
+	 * The Getters and Setters
+	 * ------------------------------- */
+
+	public boolean isCompressed()
+	{
+		return this.compressed;
+	}
+
+	public void setCompressed(boolean compressed)
+	{
+		this.compressed = compressed;
+	}
+}